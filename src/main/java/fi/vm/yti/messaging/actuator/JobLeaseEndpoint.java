@@ -0,0 +1,29 @@
+package fi.vm.yti.messaging.actuator;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import fi.vm.yti.messaging.service.JobLeaseService;
+
+@Component
+@Endpoint(id = "jobleases")
+public class JobLeaseEndpoint {
+
+    private final JobLeaseService jobLeaseService;
+
+    public JobLeaseEndpoint(final JobLeaseService jobLeaseService) {
+        this.jobLeaseService = jobLeaseService;
+    }
+
+    @ReadOperation
+    public Map<String, Object> jobLeases() {
+        final Map<String, Object> jobLeases = new LinkedHashMap<>();
+        jobLeases.put("owner", jobLeaseService.getOwner());
+        jobLeases.put("leases", jobLeaseService.getJobLeases());
+        return jobLeases;
+    }
+}
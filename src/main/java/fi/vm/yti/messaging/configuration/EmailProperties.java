@@ -0,0 +1,147 @@
+package fi.vm.yti.messaging.configuration;
+
+import java.time.Duration;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+@ConfigurationProperties("email")
+@Component
+@Validated
+public class EmailProperties {
+
+    @Min(1)
+    private int outboxConcurrency = 4;
+
+    @Min(1)
+    private int outboxBatchSize = 100;
+
+    @Min(1)
+    private int outboxMaxAttempts = 5;
+
+    @NotNull
+    private Duration outboxRetryBackoff = Duration.ofMinutes(1);
+
+    @NotNull
+    private Duration outboxMaxRetryBackoff = Duration.ofHours(1);
+
+    @NotNull
+    private Duration outboxLease = Duration.ofMinutes(10);
+
+    @NotNull
+    private Duration outboxRetention = Duration.ofDays(7);
+
+    @Min(1)
+    private int smtpPoolSize = 4;
+
+    @Min(1)
+    private int smtpMaxMessagesPerConnection = 100;
+
+    private double sendRatePerSecond = 10;
+
+    @Min(1)
+    private int sendBurst = 20;
+
+    @Min(1)
+    private int sendReplicas = 1;
+
+    public int getOutboxConcurrency() {
+        return outboxConcurrency;
+    }
+
+    public void setOutboxConcurrency(final int outboxConcurrency) {
+        this.outboxConcurrency = outboxConcurrency;
+    }
+
+    public int getOutboxBatchSize() {
+        return outboxBatchSize;
+    }
+
+    public void setOutboxBatchSize(final int outboxBatchSize) {
+        this.outboxBatchSize = outboxBatchSize;
+    }
+
+    public int getOutboxMaxAttempts() {
+        return outboxMaxAttempts;
+    }
+
+    public void setOutboxMaxAttempts(final int outboxMaxAttempts) {
+        this.outboxMaxAttempts = outboxMaxAttempts;
+    }
+
+    public Duration getOutboxRetryBackoff() {
+        return outboxRetryBackoff;
+    }
+
+    public void setOutboxRetryBackoff(final Duration outboxRetryBackoff) {
+        this.outboxRetryBackoff = outboxRetryBackoff;
+    }
+
+    public Duration getOutboxMaxRetryBackoff() {
+        return outboxMaxRetryBackoff;
+    }
+
+    public void setOutboxMaxRetryBackoff(final Duration outboxMaxRetryBackoff) {
+        this.outboxMaxRetryBackoff = outboxMaxRetryBackoff;
+    }
+
+    public Duration getOutboxLease() {
+        return outboxLease;
+    }
+
+    public void setOutboxLease(final Duration outboxLease) {
+        this.outboxLease = outboxLease;
+    }
+
+    public Duration getOutboxRetention() {
+        return outboxRetention;
+    }
+
+    public void setOutboxRetention(final Duration outboxRetention) {
+        this.outboxRetention = outboxRetention;
+    }
+
+    public int getSmtpPoolSize() {
+        return smtpPoolSize;
+    }
+
+    public void setSmtpPoolSize(final int smtpPoolSize) {
+        this.smtpPoolSize = smtpPoolSize;
+    }
+
+    public int getSmtpMaxMessagesPerConnection() {
+        return smtpMaxMessagesPerConnection;
+    }
+
+    public void setSmtpMaxMessagesPerConnection(final int smtpMaxMessagesPerConnection) {
+        this.smtpMaxMessagesPerConnection = smtpMaxMessagesPerConnection;
+    }
+
+    public double getSendRatePerSecond() {
+        return sendRatePerSecond;
+    }
+
+    public void setSendRatePerSecond(final double sendRatePerSecond) {
+        this.sendRatePerSecond = sendRatePerSecond;
+    }
+
+    public int getSendBurst() {
+        return sendBurst;
+    }
+
+    public void setSendBurst(final int sendBurst) {
+        this.sendBurst = sendBurst;
+    }
+
+    public int getSendReplicas() {
+        return sendReplicas;
+    }
+
+    public void setSendReplicas(final int sendReplicas) {
+        this.sendReplicas = sendReplicas;
+    }
+}
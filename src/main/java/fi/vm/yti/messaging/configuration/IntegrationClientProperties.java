@@ -0,0 +1,236 @@
+package fi.vm.yti.messaging.configuration;
+
+import java.time.Duration;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+@ConfigurationProperties("integrationclient")
+@Component
+@Validated
+public class IntegrationClientProperties {
+
+    @NotNull
+    private Duration connectTimeout = Duration.ofSeconds(5);
+
+    @NotNull
+    private Duration readTimeout = Duration.ofSeconds(30);
+
+    @NotNull
+    private Duration poolAcquireTimeout = Duration.ofSeconds(10);
+
+    @NotNull
+    private Duration keepAlive = Duration.ofSeconds(30);
+
+    @Min(1)
+    private int maxConnections = 50;
+
+    @Min(1)
+    private int maxConnectionsPerHost = 10;
+
+    @Min(1)
+    private int containerChunkSize = 200;
+
+    @Min(1)
+    private int fetchConcurrency = 4;
+
+    @Min(0)
+    private int chunkRetries = 2;
+
+    @NotNull
+    private Duration chunkRetryDelay = Duration.ofSeconds(1);
+
+    @Min(1)
+    private int chunkBufferSize = 100;
+
+    @Min(1)
+    private int resourcesMaxPageSize = 1000;
+
+    @NotNull
+    private Duration resourcesPageTargetLatency = Duration.ofSeconds(2);
+
+    @Min(0)
+    private int responseCacheMaxEntries = 500;
+
+    @Min(0)
+    private int responseCacheMaxBodyBytes = 8 * 1024 * 1024;
+
+    @Min(0)
+    private long responseCacheMaxTotalBytes = 64 * 1024 * 1024;
+
+    @Min(1)
+    private int circuitFailureThreshold = 5;
+
+    @NotNull
+    private Duration circuitOpenDuration = Duration.ofSeconds(30);
+
+    @Min(1)
+    private int bulkheadMaxConcurrentCalls = 8;
+
+    @NotNull
+    private Duration bulkheadMaxWait = Duration.ofSeconds(1);
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(final Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public Duration getReadTimeout() {
+        return readTimeout;
+    }
+
+    public void setReadTimeout(final Duration readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    public Duration getPoolAcquireTimeout() {
+        return poolAcquireTimeout;
+    }
+
+    public void setPoolAcquireTimeout(final Duration poolAcquireTimeout) {
+        this.poolAcquireTimeout = poolAcquireTimeout;
+    }
+
+    public Duration getKeepAlive() {
+        return keepAlive;
+    }
+
+    public void setKeepAlive(final Duration keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    public void setMaxConnections(final int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    public int getMaxConnectionsPerHost() {
+        return maxConnectionsPerHost;
+    }
+
+    public void setMaxConnectionsPerHost(final int maxConnectionsPerHost) {
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+    }
+
+    public int getContainerChunkSize() {
+        return containerChunkSize;
+    }
+
+    public void setContainerChunkSize(final int containerChunkSize) {
+        this.containerChunkSize = containerChunkSize;
+    }
+
+    public int getFetchConcurrency() {
+        return fetchConcurrency;
+    }
+
+    public void setFetchConcurrency(final int fetchConcurrency) {
+        this.fetchConcurrency = fetchConcurrency;
+    }
+
+    public int getChunkRetries() {
+        return chunkRetries;
+    }
+
+    public void setChunkRetries(final int chunkRetries) {
+        this.chunkRetries = chunkRetries;
+    }
+
+    public Duration getChunkRetryDelay() {
+        return chunkRetryDelay;
+    }
+
+    public void setChunkRetryDelay(final Duration chunkRetryDelay) {
+        this.chunkRetryDelay = chunkRetryDelay;
+    }
+
+    public int getChunkBufferSize() {
+        return chunkBufferSize;
+    }
+
+    public void setChunkBufferSize(final int chunkBufferSize) {
+        this.chunkBufferSize = chunkBufferSize;
+    }
+
+    public int getResourcesMaxPageSize() {
+        return resourcesMaxPageSize;
+    }
+
+    public void setResourcesMaxPageSize(final int resourcesMaxPageSize) {
+        this.resourcesMaxPageSize = resourcesMaxPageSize;
+    }
+
+    public Duration getResourcesPageTargetLatency() {
+        return resourcesPageTargetLatency;
+    }
+
+    public void setResourcesPageTargetLatency(final Duration resourcesPageTargetLatency) {
+        this.resourcesPageTargetLatency = resourcesPageTargetLatency;
+    }
+
+    public int getResponseCacheMaxEntries() {
+        return responseCacheMaxEntries;
+    }
+
+    public void setResponseCacheMaxEntries(final int responseCacheMaxEntries) {
+        this.responseCacheMaxEntries = responseCacheMaxEntries;
+    }
+
+    public int getResponseCacheMaxBodyBytes() {
+        return responseCacheMaxBodyBytes;
+    }
+
+    public void setResponseCacheMaxBodyBytes(final int responseCacheMaxBodyBytes) {
+        this.responseCacheMaxBodyBytes = responseCacheMaxBodyBytes;
+    }
+
+    public long getResponseCacheMaxTotalBytes() {
+        return responseCacheMaxTotalBytes;
+    }
+
+    public void setResponseCacheMaxTotalBytes(final long responseCacheMaxTotalBytes) {
+        this.responseCacheMaxTotalBytes = responseCacheMaxTotalBytes;
+    }
+
+    public int getCircuitFailureThreshold() {
+        return circuitFailureThreshold;
+    }
+
+    public void setCircuitFailureThreshold(final int circuitFailureThreshold) {
+        this.circuitFailureThreshold = circuitFailureThreshold;
+    }
+
+    public Duration getCircuitOpenDuration() {
+        return circuitOpenDuration;
+    }
+
+    public void setCircuitOpenDuration(final Duration circuitOpenDuration) {
+        this.circuitOpenDuration = circuitOpenDuration;
+    }
+
+    public int getBulkheadMaxConcurrentCalls() {
+        return bulkheadMaxConcurrentCalls;
+    }
+
+    public void setBulkheadMaxConcurrentCalls(final int bulkheadMaxConcurrentCalls) {
+        this.bulkheadMaxConcurrentCalls = bulkheadMaxConcurrentCalls;
+    }
+
+    public Duration getBulkheadMaxWait() {
+        return bulkheadMaxWait;
+    }
+
+    public void setBulkheadMaxWait(final Duration bulkheadMaxWait) {
+        this.bulkheadMaxWait = bulkheadMaxWait;
+    }
+}
@@ -0,0 +1,47 @@
+package fi.vm.yti.messaging.configuration;
+
+import java.time.Duration;
+
+import javax.validation.constraints.NotNull;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+@ConfigurationProperties("joblease")
+@Component
+@Validated
+public class JobLeaseProperties {
+
+    private String owner;
+
+    @NotNull
+    private Duration leaseDuration = Duration.ofHours(3);
+
+    @NotNull
+    private Duration minimumHold = Duration.ofMinutes(5);
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(final String owner) {
+        this.owner = owner;
+    }
+
+    public Duration getLeaseDuration() {
+        return leaseDuration;
+    }
+
+    public void setLeaseDuration(final Duration leaseDuration) {
+        this.leaseDuration = leaseDuration;
+    }
+
+    public Duration getMinimumHold() {
+        return minimumHold;
+    }
+
+    public void setMinimumHold(final Duration minimumHold) {
+        this.minimumHold = minimumHold;
+    }
+}
@@ -0,0 +1,161 @@
+package fi.vm.yti.messaging.configuration;
+
+import java.time.Duration;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+@ConfigurationProperties("notification")
+@Component
+@Validated
+public class NotificationProperties {
+
+    @Min(1)
+    private int parallelism = 4;
+
+    @Min(1)
+    private int partitionSize = 500;
+
+    @NotNull
+    private Duration completionTimeout = Duration.ofHours(2);
+
+    @Min(0)
+    @Max(23)
+    private int digestHour = 7;
+
+    @Min(1)
+    private int shardCount = 16;
+
+    @NotNull
+    private Duration shardLease = Duration.ofHours(3);
+
+    @Min(1)
+    private int shardMaxAttempts = 3;
+
+    @NotNull
+    private Duration instantCoalesceWindow = Duration.ofMinutes(10);
+
+    @NotNull
+    private Duration instantInitialLookback = Duration.ofMinutes(15);
+
+    @NotNull
+    private Duration instantLeaseHold = Duration.ofMinutes(1);
+
+    @NotNull
+    private Duration initialLookback = Duration.ofDays(1);
+
+    @NotNull
+    private Duration maxCatchUp = Duration.ofDays(7);
+
+    @NotNull
+    private String dryRunOutputDirectory = System.getProperty("java.io.tmpdir") + "/notification-dry-run";
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(final int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public int getPartitionSize() {
+        return partitionSize;
+    }
+
+    public void setPartitionSize(final int partitionSize) {
+        this.partitionSize = partitionSize;
+    }
+
+    public Duration getCompletionTimeout() {
+        return completionTimeout;
+    }
+
+    public void setCompletionTimeout(final Duration completionTimeout) {
+        this.completionTimeout = completionTimeout;
+    }
+
+    public int getDigestHour() {
+        return digestHour;
+    }
+
+    public void setDigestHour(final int digestHour) {
+        this.digestHour = digestHour;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public void setShardCount(final int shardCount) {
+        this.shardCount = shardCount;
+    }
+
+    public Duration getShardLease() {
+        return shardLease;
+    }
+
+    public void setShardLease(final Duration shardLease) {
+        this.shardLease = shardLease;
+    }
+
+    public int getShardMaxAttempts() {
+        return shardMaxAttempts;
+    }
+
+    public void setShardMaxAttempts(final int shardMaxAttempts) {
+        this.shardMaxAttempts = shardMaxAttempts;
+    }
+
+    public Duration getInstantCoalesceWindow() {
+        return instantCoalesceWindow;
+    }
+
+    public void setInstantCoalesceWindow(final Duration instantCoalesceWindow) {
+        this.instantCoalesceWindow = instantCoalesceWindow;
+    }
+
+    public Duration getInstantInitialLookback() {
+        return instantInitialLookback;
+    }
+
+    public void setInstantInitialLookback(final Duration instantInitialLookback) {
+        this.instantInitialLookback = instantInitialLookback;
+    }
+
+    public Duration getInstantLeaseHold() {
+        return instantLeaseHold;
+    }
+
+    public void setInstantLeaseHold(final Duration instantLeaseHold) {
+        this.instantLeaseHold = instantLeaseHold;
+    }
+
+    public Duration getInitialLookback() {
+        return initialLookback;
+    }
+
+    public void setInitialLookback(final Duration initialLookback) {
+        this.initialLookback = initialLookback;
+    }
+
+    public Duration getMaxCatchUp() {
+        return maxCatchUp;
+    }
+
+    public void setMaxCatchUp(final Duration maxCatchUp) {
+        this.maxCatchUp = maxCatchUp;
+    }
+
+    public String getDryRunOutputDirectory() {
+        return dryRunOutputDirectory;
+    }
+
+    public void setDryRunOutputDirectory(final String dryRunOutputDirectory) {
+        this.dryRunOutputDirectory = dryRunOutputDirectory;
+    }
+}
@@ -3,11 +3,17 @@ package fi.vm.yti.messaging.configuration;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
 
 import javax.sql.DataSource;
 
 import org.apache.catalina.connector.Connector;
 import org.apache.coyote.ajp.AjpNioProtocol;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
@@ -18,22 +24,24 @@ import org.springframework.context.annotation.PropertySource;
 import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.client.ClientHttpRequestFactory;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.http.converter.StringHttpMessageConverter;
 import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
 
 import com.zaxxer.hikari.HikariDataSource;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+
 @Component
 @Configuration
 @EnableScheduling
 @PropertySource(value = "classpath", ignoreResourceNotFound = true)
 public class SpringAppConfig {
 
-    private static final int CONNECTION_TIMEOUT = 30000;
-
     @Value(value = "${application.contextPath}")
     private String contextPath;
 
@@ -71,16 +79,54 @@ public class SpringAppConfig {
     }
 
     @Bean
-    ClientHttpRequestFactory httpRequestFactory() {
-        final SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
-        requestFactory.setConnectTimeout(CONNECTION_TIMEOUT);
-        requestFactory.setReadTimeout(CONNECTION_TIMEOUT);
-        return requestFactory;
+    public ThreadPoolTaskScheduler taskScheduler(@Value("${scheduler.poolSize:4}") final int poolSize) {
+        final ThreadPoolTaskScheduler taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.setPoolSize(poolSize);
+        taskScheduler.setThreadNamePrefix("scheduler-");
+        taskScheduler.setWaitForTasksToCompleteOnShutdown(false);
+        return taskScheduler;
+    }
+
+    @Bean(destroyMethod = "close")
+    PoolingHttpClientConnectionManager integrationConnectionManager(final IntegrationClientProperties integrationClientProperties,
+                                                                    final MeterRegistry meterRegistry) {
+        final PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(integrationClientProperties.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(integrationClientProperties.getMaxConnectionsPerHost());
+        connectionManager.setValidateAfterInactivity(2000);
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "integration").bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    CloseableHttpClient integrationHttpClient(final PoolingHttpClientConnectionManager integrationConnectionManager,
+                                              final IntegrationClientProperties integrationClientProperties) {
+        final long keepAliveMillis = integrationClientProperties.getKeepAlive().toMillis();
+        final RequestConfig requestConfig = RequestConfig.custom()
+            .setConnectTimeout((int) integrationClientProperties.getConnectTimeout().toMillis())
+            .setSocketTimeout((int) integrationClientProperties.getReadTimeout().toMillis())
+            .setConnectionRequestTimeout((int) integrationClientProperties.getPoolAcquireTimeout().toMillis())
+            .build();
+        return HttpClients.custom()
+            .setConnectionManager(integrationConnectionManager)
+            .setDefaultRequestConfig(requestConfig)
+            .setKeepAliveStrategy((response, context) -> {
+                final long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                return serverKeepAlive > 0 && serverKeepAlive < keepAliveMillis ? serverKeepAlive : keepAliveMillis;
+            })
+            .evictExpiredConnections()
+            .evictIdleConnections(keepAliveMillis, TimeUnit.MILLISECONDS)
+            .build();
+    }
+
+    @Bean
+    ClientHttpRequestFactory httpRequestFactory(final CloseableHttpClient integrationHttpClient) {
+        return new HttpComponentsClientHttpRequestFactory(integrationHttpClient);
     }
 
     @Bean
-    RestTemplate restTemplate() {
-        final RestTemplate restTemplate = new RestTemplate(httpRequestFactory());
+    RestTemplate restTemplate(final ClientHttpRequestFactory httpRequestFactory) {
+        final RestTemplate restTemplate = new RestTemplate(httpRequestFactory);
         restTemplate.getMessageConverters()
             .add(0, new StringHttpMessageConverter(Charset.forName("UTF-8")));
         return restTemplate;
@@ -0,0 +1,29 @@
+package fi.vm.yti.messaging.dao;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import fi.vm.yti.messaging.entity.EmailOutboxMessage;
+import fi.vm.yti.messaging.service.impl.EmailOutboxStatus;
+
+public interface EmailOutboxDao {
+
+    void queueMessages(final Map<UUID, String> messages,
+                       final UUID runId);
+
+    List<EmailOutboxMessage> claimPendingMessages(final int limit,
+                                                  final Duration lease);
+
+    void markSent(final UUID messageId);
+
+    void markFailed(final UUID messageId,
+                    final boolean retry,
+                    final Duration retryDelay,
+                    final String error);
+
+    int deleteSentBefore(final Duration retention);
+
+    Map<EmailOutboxStatus, Integer> countMessagesByRun(final UUID runId);
+}
@@ -0,0 +1,11 @@
+package fi.vm.yti.messaging.dao;
+
+import java.time.Instant;
+
+public interface IntegrationWatermarkDao {
+
+    Instant findWatermark(final String applicationIdentifier);
+
+    boolean advanceWatermark(final String applicationIdentifier,
+                             final Instant watermark);
+}
@@ -0,0 +1,19 @@
+package fi.vm.yti.messaging.dao;
+
+import java.time.Duration;
+import java.util.List;
+
+import fi.vm.yti.messaging.entity.JobLease;
+
+public interface JobLeaseDao {
+
+    List<JobLease> findAll();
+
+    boolean acquireLease(final String jobName,
+                         final String owner,
+                         final Duration leaseDuration);
+
+    boolean releaseLease(final String jobName,
+                         final String owner,
+                         final Duration minimumHold);
+}
@@ -0,0 +1,42 @@
+package fi.vm.yti.messaging.dao;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import fi.vm.yti.messaging.dto.ChangeWindowDTO;
+import fi.vm.yti.messaging.dto.NotificationJobDTO;
+import fi.vm.yti.messaging.entity.NotificationRunRecord;
+import fi.vm.yti.messaging.entity.NotificationShard;
+
+public interface NotificationShardDao {
+
+    int abandonStaleRuns(final Duration staleAfter);
+
+    UUID createRun(final List<ChangeWindowDTO> changeWindows,
+                   final int shardCount);
+
+    NotificationRunRecord findRun(final UUID runId);
+
+    NotificationRunRecord findOpenRun();
+
+    NotificationJobDTO summarizeRun(final NotificationRunRecord run);
+
+    List<ChangeWindowDTO> findRunWindows(final UUID runId);
+
+    NotificationShard claimShard(final String owner,
+                                 final Duration lease,
+                                 final int maxAttempts);
+
+    Set<UUID> failExhaustedShards(final int maxAttempts);
+
+    boolean completeShard(final NotificationShard shard,
+                          final String owner,
+                          final boolean successful,
+                          final int matchedUsers,
+                          final int queued,
+                          final int failed);
+
+    NotificationRunRecord finishRun(final UUID runId);
+}
@@ -1,8 +1,11 @@
 package fi.vm.yti.messaging.dao;
 
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
+import fi.vm.yti.messaging.entity.Resource;
 import fi.vm.yti.messaging.entity.User;
 
 public interface UserDao {
@@ -13,6 +16,15 @@ public interface UserDao {
 
     Set<User> findAll();
 
+    boolean hasSubscribers(final String subscriptionType);
+
+    void streamSubscriptionsByResourceUris(final Set<String> resourceUris,
+                                           final String subscriptionType,
+                                           final int shardCount,
+                                           final int shard,
+                                           final int chunkSize,
+                                           final Consumer<Map<UUID, Set<Resource>>> chunkConsumer);
+
     User getUser(final UUID user);
 
     User getOrCreateUser(final UUID user);
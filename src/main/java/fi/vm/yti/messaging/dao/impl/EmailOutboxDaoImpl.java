@@ -0,0 +1,75 @@
+package fi.vm.yti.messaging.dao.impl;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.inject.Inject;
+
+import org.springframework.stereotype.Component;
+
+import fi.vm.yti.messaging.dao.EmailOutboxDao;
+import fi.vm.yti.messaging.entity.EmailOutboxMessage;
+import fi.vm.yti.messaging.jpa.EmailOutboxRepository;
+import fi.vm.yti.messaging.service.impl.EmailOutboxStatus;
+
+@Component
+public class EmailOutboxDaoImpl implements EmailOutboxDao {
+
+    private final EmailOutboxRepository emailOutboxRepository;
+
+    @Inject
+    public EmailOutboxDaoImpl(final EmailOutboxRepository emailOutboxRepository) {
+        this.emailOutboxRepository = emailOutboxRepository;
+    }
+
+    public void queueMessages(final Map<UUID, String> messages,
+                              final UUID runId) {
+        final List<EmailOutboxMessage> outboxMessages = new ArrayList<>(messages.size());
+        messages.forEach((userId, body) -> outboxMessages.add(createMessage(userId, body, runId)));
+        emailOutboxRepository.saveAll(outboxMessages);
+    }
+
+    public List<EmailOutboxMessage> claimPendingMessages(final int limit,
+                                                         final Duration lease) {
+        return emailOutboxRepository.claimPendingMessages(limit, lease.getSeconds());
+    }
+
+    public void markSent(final UUID messageId) {
+        emailOutboxRepository.markSent(messageId);
+    }
+
+    public void markFailed(final UUID messageId,
+                           final boolean retry,
+                           final Duration retryDelay,
+                           final String error) {
+        final EmailOutboxStatus status = retry ? EmailOutboxStatus.PENDING : EmailOutboxStatus.FAILED;
+        emailOutboxRepository.markFailed(messageId, status.toString(), retryDelay.getSeconds(), error);
+    }
+
+    public int deleteSentBefore(final Duration retention) {
+        return emailOutboxRepository.deleteSentBefore(retention.getSeconds());
+    }
+
+    public Map<EmailOutboxStatus, Integer> countMessagesByRun(final UUID runId) {
+        final Map<EmailOutboxStatus, Integer> counts = new EnumMap<>(EmailOutboxStatus.class);
+        emailOutboxRepository.countByRunIdGroupByStatus(runId).forEach(row -> counts.put(EmailOutboxStatus.valueOf((String) row[0]), ((Number) row[1]).intValue()));
+        return counts;
+    }
+
+    private EmailOutboxMessage createMessage(final UUID userId,
+                                             final String body,
+                                             final UUID runId) {
+        final EmailOutboxMessage message = new EmailOutboxMessage();
+        message.setId(UUID.randomUUID());
+        message.setUserId(userId);
+        message.setBody(body);
+        message.setStatus(EmailOutboxStatus.PENDING.toString());
+        message.setAttempts(0);
+        message.setRunId(runId);
+        return message;
+    }
+}
@@ -0,0 +1,33 @@
+package fi.vm.yti.messaging.dao.impl;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import javax.inject.Inject;
+
+import org.springframework.stereotype.Component;
+
+import fi.vm.yti.messaging.dao.IntegrationWatermarkDao;
+import fi.vm.yti.messaging.entity.IntegrationWatermark;
+import fi.vm.yti.messaging.jpa.IntegrationWatermarkRepository;
+
+@Component
+public class IntegrationWatermarkDaoImpl implements IntegrationWatermarkDao {
+
+    private final IntegrationWatermarkRepository integrationWatermarkRepository;
+
+    @Inject
+    public IntegrationWatermarkDaoImpl(final IntegrationWatermarkRepository integrationWatermarkRepository) {
+        this.integrationWatermarkRepository = integrationWatermarkRepository;
+    }
+
+    public Instant findWatermark(final String applicationIdentifier) {
+        final IntegrationWatermark integrationWatermark = integrationWatermarkRepository.findByApplication(applicationIdentifier);
+        return integrationWatermark != null ? integrationWatermark.getWatermark() : null;
+    }
+
+    public boolean advanceWatermark(final String applicationIdentifier,
+                                    final Instant watermark) {
+        return integrationWatermarkRepository.advanceWatermark(applicationIdentifier, Timestamp.from(watermark)) > 0;
+    }
+}
@@ -0,0 +1,39 @@
+package fi.vm.yti.messaging.dao.impl;
+
+import java.time.Duration;
+import java.util.List;
+
+import javax.inject.Inject;
+
+import org.springframework.stereotype.Component;
+
+import fi.vm.yti.messaging.dao.JobLeaseDao;
+import fi.vm.yti.messaging.entity.JobLease;
+import fi.vm.yti.messaging.jpa.JobLeaseRepository;
+
+@Component
+public class JobLeaseDaoImpl implements JobLeaseDao {
+
+    private final JobLeaseRepository jobLeaseRepository;
+
+    @Inject
+    public JobLeaseDaoImpl(final JobLeaseRepository jobLeaseRepository) {
+        this.jobLeaseRepository = jobLeaseRepository;
+    }
+
+    public List<JobLease> findAll() {
+        return jobLeaseRepository.findAllByOrderByJobName();
+    }
+
+    public boolean acquireLease(final String jobName,
+                                final String owner,
+                                final Duration leaseDuration) {
+        return jobLeaseRepository.acquireLease(jobName, owner, leaseDuration.getSeconds()) > 0;
+    }
+
+    public boolean releaseLease(final String jobName,
+                                final String owner,
+                                final Duration minimumHold) {
+        return jobLeaseRepository.releaseLease(jobName, owner, minimumHold.getSeconds()) > 0;
+    }
+}
@@ -0,0 +1,150 @@
+package fi.vm.yti.messaging.dao.impl;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.inject.Inject;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import fi.vm.yti.messaging.dao.NotificationShardDao;
+import fi.vm.yti.messaging.dto.ChangeWindowDTO;
+import fi.vm.yti.messaging.dto.NotificationJobDTO;
+import fi.vm.yti.messaging.entity.NotificationRunRecord;
+import fi.vm.yti.messaging.entity.NotificationRunWindow;
+import fi.vm.yti.messaging.entity.NotificationShard;
+import fi.vm.yti.messaging.jpa.NotificationRunRecordRepository;
+import fi.vm.yti.messaging.jpa.NotificationRunWindowRepository;
+import fi.vm.yti.messaging.jpa.NotificationShardRepository;
+import fi.vm.yti.messaging.service.impl.NotificationRunStatus;
+import fi.vm.yti.messaging.service.impl.NotificationShardStatus;
+
+@Component
+public class NotificationShardDaoImpl implements NotificationShardDao {
+
+    private final NotificationRunRecordRepository notificationRunRecordRepository;
+    private final NotificationRunWindowRepository notificationRunWindowRepository;
+    private final NotificationShardRepository notificationShardRepository;
+
+    @Inject
+    public NotificationShardDaoImpl(final NotificationRunRecordRepository notificationRunRecordRepository,
+                                    final NotificationRunWindowRepository notificationRunWindowRepository,
+                                    final NotificationShardRepository notificationShardRepository) {
+        this.notificationRunRecordRepository = notificationRunRecordRepository;
+        this.notificationRunWindowRepository = notificationRunWindowRepository;
+        this.notificationShardRepository = notificationShardRepository;
+    }
+
+    public int abandonStaleRuns(final Duration staleAfter) {
+        return notificationRunRecordRepository.abandonStaleRuns(staleAfter.getSeconds());
+    }
+
+    @Transactional
+    public UUID createRun(final List<ChangeWindowDTO> changeWindows,
+                          final int shardCount) {
+        final NotificationRunRecord run = new NotificationRunRecord();
+        run.setId(UUID.randomUUID());
+        run.setStatus(NotificationRunStatus.OPEN.toString());
+        run.setShardCount(shardCount);
+        notificationRunRecordRepository.save(run);
+        final List<NotificationRunWindow> windows = new ArrayList<>();
+        changeWindows.forEach(changeWindow -> windows.add(createWindow(run.getId(), changeWindow)));
+        notificationRunWindowRepository.saveAll(windows);
+        final List<NotificationShard> shards = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            shards.add(createShard(run.getId(), shard));
+        }
+        notificationShardRepository.saveAll(shards);
+        return run.getId();
+    }
+
+    public NotificationRunRecord findRun(final UUID runId) {
+        return notificationRunRecordRepository.findById(runId).orElse(null);
+    }
+
+    public NotificationRunRecord findOpenRun() {
+        return notificationRunRecordRepository.findFirstByStatusOrderByCreatedDesc(NotificationRunStatus.OPEN.toString());
+    }
+
+    public NotificationJobDTO summarizeRun(final NotificationRunRecord run) {
+        final NotificationJobDTO job = new NotificationJobDTO();
+        job.setJobId(run.getId());
+        job.setStatus(run.getStatus());
+        job.setCreated(run.getCreated());
+        job.setCompleted(run.getCompleted());
+        final List<Object[]> rows = notificationRunRecordRepository.summarizeRun(run.getId());
+        if (!rows.isEmpty()) {
+            final Object[] row = rows.get(0);
+            job.setTotalShards(((Number) row[0]).intValue());
+            job.setRunningShards(((Number) row[1]).intValue());
+            job.setProcessedShards(((Number) row[2]).intValue());
+            job.setFailedShards(((Number) row[3]).intValue());
+            job.setProcessedUsers(((Number) row[4]).intValue());
+            job.setEmailsQueued(((Number) row[5]).intValue());
+            job.setEmailsFailedToQueue(((Number) row[6]).intValue());
+            job.setElapsedMillis(((Number) row[7]).longValue());
+        }
+        return job;
+    }
+
+    public List<ChangeWindowDTO> findRunWindows(final UUID runId) {
+        final List<ChangeWindowDTO> changeWindows = new ArrayList<>();
+        notificationRunWindowRepository.findByRunId(runId).forEach(window -> changeWindows.add(new ChangeWindowDTO(window.getApplication(), window.getSubscriptionType(), window.getWindowAfter(), window.getWindowBefore())));
+        return changeWindows;
+    }
+
+    public NotificationShard claimShard(final String owner,
+                                        final Duration lease,
+                                        final int maxAttempts) {
+        final List<NotificationShard> shards = notificationShardRepository.claimShard(owner, lease.getSeconds(), maxAttempts);
+        return shards.isEmpty() ? null : shards.get(0);
+    }
+
+    public Set<UUID> failExhaustedShards(final int maxAttempts) {
+        final Set<UUID> runIds = new HashSet<>();
+        notificationShardRepository.failExhaustedShards(maxAttempts).forEach(shard -> runIds.add(shard.getRunId()));
+        return runIds;
+    }
+
+    public boolean completeShard(final NotificationShard shard,
+                                 final String owner,
+                                 final boolean successful,
+                                 final int matchedUsers,
+                                 final int queued,
+                                 final int failed) {
+        final NotificationShardStatus status = successful ? NotificationShardStatus.COMPLETED : NotificationShardStatus.FAILED;
+        return notificationShardRepository.completeShard(shard.getId(), owner, status.toString(), matchedUsers, queued, failed) > 0;
+    }
+
+    public NotificationRunRecord finishRun(final UUID runId) {
+        final List<NotificationRunRecord> runs = notificationRunRecordRepository.finishRun(runId);
+        return runs.isEmpty() ? null : runs.get(0);
+    }
+
+    private NotificationRunWindow createWindow(final UUID runId,
+                                               final ChangeWindowDTO changeWindow) {
+        final NotificationRunWindow window = new NotificationRunWindow();
+        window.setId(UUID.randomUUID());
+        window.setRunId(runId);
+        window.setApplication(changeWindow.getApplication());
+        window.setSubscriptionType(changeWindow.getSubscriptionType());
+        window.setWindowAfter(changeWindow.getAfter());
+        window.setWindowBefore(changeWindow.getBefore());
+        return window;
+    }
+
+    private NotificationShard createShard(final UUID runId,
+                                          final int shard) {
+        final NotificationShard notificationShard = new NotificationShard();
+        notificationShard.setId(UUID.randomUUID());
+        notificationShard.setRunId(runId);
+        notificationShard.setShard(shard);
+        notificationShard.setStatus(NotificationShardStatus.PENDING.toString());
+        return notificationShard;
+    }
+}
@@ -1,13 +1,19 @@
 package fi.vm.yti.messaging.dao.impl;
 
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import javax.inject.Inject;
 
 import org.springframework.stereotype.Component;
 
 import fi.vm.yti.messaging.dao.UserDao;
+import fi.vm.yti.messaging.entity.Resource;
 import fi.vm.yti.messaging.entity.User;
 import fi.vm.yti.messaging.exception.NotFoundException;
 import fi.vm.yti.messaging.jpa.UserRepository;
@@ -35,6 +41,35 @@ public class UserDaoImpl implements UserDao {
         return userRepository.findAll();
     }
 
+    public boolean hasSubscribers(final String subscriptionType) {
+        return userRepository.existsBySubscriptionType(subscriptionType);
+    }
+
+    public void streamSubscriptionsByResourceUris(final Set<String> resourceUris,
+                                                  final String subscriptionType,
+                                                  final int shardCount,
+                                                  final int shard,
+                                                  final int chunkSize,
+                                                  final Consumer<Map<UUID, Set<Resource>>> chunkConsumer) {
+        if (resourceUris == null || resourceUris.isEmpty()) {
+            return;
+        }
+        final Map<UUID, Set<Resource>> chunk = new LinkedHashMap<>();
+        try (final Stream<Object[]> rows = userRepository.streamSubscriptionsByResourceUris(String.join("\n", resourceUris), subscriptionType, shardCount, shard)) {
+            rows.forEach(row -> {
+                final UUID userId = UUID.fromString((String) row[0]);
+                if (!chunk.containsKey(userId) && chunk.size() >= chunkSize) {
+                    chunkConsumer.accept(new LinkedHashMap<>(chunk));
+                    chunk.clear();
+                }
+                chunk.computeIfAbsent(userId, id -> new HashSet<>()).add(createSubscribedResource(row));
+            });
+        }
+        if (!chunk.isEmpty()) {
+            chunkConsumer.accept(chunk);
+        }
+    }
+
     public User getUser(final UUID userId) {
         return userRepository.findById(userId);
     }
@@ -61,6 +96,14 @@ public class UserDaoImpl implements UserDao {
         throw new NotFoundException();
     }
 
+    private Resource createSubscribedResource(final Object[] row) {
+        final Resource resource = new Resource();
+        resource.setUri((String) row[1]);
+        resource.setApplication((String) row[2]);
+        resource.setType((String) row[3]);
+        return resource;
+    }
+
     private User createUser(final UUID id) {
         final User user = new User();
         user.setId(id);
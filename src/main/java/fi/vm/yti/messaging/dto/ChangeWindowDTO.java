@@ -0,0 +1,48 @@
+package fi.vm.yti.messaging.dto;
+
+import java.time.Instant;
+
+public class ChangeWindowDTO {
+
+    private final String application;
+    private final String subscriptionType;
+    private final Instant after;
+    private final Instant before;
+
+    public ChangeWindowDTO(final String application,
+                           final Instant after,
+                           final Instant before) {
+        this(application, "DAILY", after, before);
+    }
+
+    public ChangeWindowDTO(final String application,
+                           final String subscriptionType,
+                           final Instant after,
+                           final Instant before) {
+        this.application = application;
+        this.subscriptionType = subscriptionType;
+        this.after = after;
+        this.before = before;
+    }
+
+    public String getApplication() {
+        return application;
+    }
+
+    public String getSubscriptionType() {
+        return subscriptionType;
+    }
+
+    public Instant getAfter() {
+        return after;
+    }
+
+    public Instant getBefore() {
+        return before;
+    }
+
+    @Override
+    public String toString() {
+        return application + " " + subscriptionType + " [" + after + ", " + before + ")";
+    }
+}
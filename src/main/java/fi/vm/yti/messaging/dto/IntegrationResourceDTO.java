@@ -1,8 +1,11 @@
 package fi.vm.yti.messaging.dto;
 
 import java.io.Serializable;
+import java.text.CollationKey;
+import java.text.Collator;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 
 import javax.xml.bind.annotation.XmlRootElement;
@@ -20,6 +23,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 public class IntegrationResourceDTO implements Serializable, Comparable<IntegrationResourceDTO> {
 
     private static final long serialVersionUID = 1L;
+    private static final Collator SORT_COLLATOR = createSortCollator();
 
     private Map<String, String> prefLabel;
     private Map<String, String> description;
@@ -33,6 +37,8 @@ public class IntegrationResourceDTO implements Serializable, Comparable<Integrat
     private String type;
     private IntegrationResponseDTO subResourceResponse;
     private String[] reasonCodes;
+    private transient CollationKey sortKey;
+    private transient volatile boolean sortKeyResolved;
 
     public IntegrationResourceDTO() {
         prefLabel = new HashMap<>();
@@ -64,6 +70,8 @@ public class IntegrationResourceDTO implements Serializable, Comparable<Integrat
 
     public void setPrefLabel(final Map<String, String> prefLabel) {
         this.prefLabel = prefLabel;
+        this.sortKey = null;
+        this.sortKeyResolved = false;
     }
 
     public Map<String, String> getDescription() {
@@ -179,14 +187,31 @@ public class IntegrationResourceDTO implements Serializable, Comparable<Integrat
 
     @Override
     public int compareTo(final IntegrationResourceDTO integrationResource) {
-        if (getPrefLabel() == null && integrationResource.getPrefLabel() == null) {
-            return 0;
+        final CollationKey key = getSortKey();
+        final CollationKey otherKey = integrationResource.getSortKey();
+        if (key == null) {
+            return otherKey == null ? 0 : 1;
+        } else if (otherKey == null) {
+            return -1;
         }
-        if (getPrefLabel("fi") != null && integrationResource.getPrefLabel("fi") != null) {
-            return getPrefLabel("fi").compareToIgnoreCase(integrationResource.getPrefLabel("fi"));
-        } else if (getPrefLabel("und") != null && integrationResource.getPrefLabel("und") != null) {
-            return getPrefLabel("und").compareToIgnoreCase(integrationResource.getPrefLabel("und"));
+        return key.compareTo(otherKey);
+    }
+
+    private CollationKey getSortKey() {
+        if (!sortKeyResolved) {
+            String sortLabel = getPrefLabel("fi");
+            if (sortLabel == null) {
+                sortLabel = getPrefLabel("und");
+            }
+            sortKey = sortLabel != null ? SORT_COLLATOR.getCollationKey(sortLabel) : null;
+            sortKeyResolved = true;
         }
-        return 0;
+        return sortKey;
+    }
+
+    private static Collator createSortCollator() {
+        final Collator collator = Collator.getInstance(new Locale("fi"));
+        collator.setStrength(Collator.SECONDARY);
+        return collator;
     }
 }
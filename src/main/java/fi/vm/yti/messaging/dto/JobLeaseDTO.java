@@ -0,0 +1,61 @@
+package fi.vm.yti.messaging.dto;
+
+import java.time.LocalDateTime;
+
+public class JobLeaseDTO {
+
+    private String jobName;
+    private String owner;
+    private LocalDateTime acquired;
+    private LocalDateTime expires;
+    private LocalDateTime released;
+    private boolean ownedByThisNode;
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public void setJobName(final String jobName) {
+        this.jobName = jobName;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(final String owner) {
+        this.owner = owner;
+    }
+
+    public LocalDateTime getAcquired() {
+        return acquired;
+    }
+
+    public void setAcquired(final LocalDateTime acquired) {
+        this.acquired = acquired;
+    }
+
+    public LocalDateTime getExpires() {
+        return expires;
+    }
+
+    public void setExpires(final LocalDateTime expires) {
+        this.expires = expires;
+    }
+
+    public LocalDateTime getReleased() {
+        return released;
+    }
+
+    public void setReleased(final LocalDateTime released) {
+        this.released = released;
+    }
+
+    public boolean isOwnedByThisNode() {
+        return ownedByThisNode;
+    }
+
+    public void setOwnedByThisNode(final boolean ownedByThisNode) {
+        this.ownedByThisNode = ownedByThisNode;
+    }
+}
@@ -0,0 +1,124 @@
+package fi.vm.yti.messaging.dto;
+
+import java.util.UUID;
+
+public class NotificationDryRunDTO {
+
+    private UUID dryRunId;
+    private String subscriptionType;
+    private String changeWindow;
+    private int updatedResources;
+    private int scannedUsers;
+    private int digests;
+    private int distinctBodies;
+    private long renderedBytes;
+    private long fetchMillis;
+    private long mapMillis;
+    private long renderMillis;
+    private long elapsedMillis;
+    private String outputDirectory;
+
+    public UUID getDryRunId() {
+        return dryRunId;
+    }
+
+    public void setDryRunId(final UUID dryRunId) {
+        this.dryRunId = dryRunId;
+    }
+
+    public String getSubscriptionType() {
+        return subscriptionType;
+    }
+
+    public void setSubscriptionType(final String subscriptionType) {
+        this.subscriptionType = subscriptionType;
+    }
+
+    public String getChangeWindow() {
+        return changeWindow;
+    }
+
+    public void setChangeWindow(final String changeWindow) {
+        this.changeWindow = changeWindow;
+    }
+
+    public int getUpdatedResources() {
+        return updatedResources;
+    }
+
+    public void setUpdatedResources(final int updatedResources) {
+        this.updatedResources = updatedResources;
+    }
+
+    public int getScannedUsers() {
+        return scannedUsers;
+    }
+
+    public void setScannedUsers(final int scannedUsers) {
+        this.scannedUsers = scannedUsers;
+    }
+
+    public int getDigests() {
+        return digests;
+    }
+
+    public void setDigests(final int digests) {
+        this.digests = digests;
+    }
+
+    public int getDistinctBodies() {
+        return distinctBodies;
+    }
+
+    public void setDistinctBodies(final int distinctBodies) {
+        this.distinctBodies = distinctBodies;
+    }
+
+    public long getRenderedBytes() {
+        return renderedBytes;
+    }
+
+    public void setRenderedBytes(final long renderedBytes) {
+        this.renderedBytes = renderedBytes;
+    }
+
+    public long getFetchMillis() {
+        return fetchMillis;
+    }
+
+    public void setFetchMillis(final long fetchMillis) {
+        this.fetchMillis = fetchMillis;
+    }
+
+    public long getMapMillis() {
+        return mapMillis;
+    }
+
+    public void setMapMillis(final long mapMillis) {
+        this.mapMillis = mapMillis;
+    }
+
+    public long getRenderMillis() {
+        return renderMillis;
+    }
+
+    public void setRenderMillis(final long renderMillis) {
+        this.renderMillis = renderMillis;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(final long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public String getOutputDirectory() {
+        return outputDirectory;
+    }
+
+    public void setOutputDirectory(final String outputDirectory) {
+        this.outputDirectory = outputDirectory;
+    }
+}
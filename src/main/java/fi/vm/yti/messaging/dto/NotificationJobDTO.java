@@ -0,0 +1,152 @@
+package fi.vm.yti.messaging.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public class NotificationJobDTO {
+
+    private UUID jobId;
+    private String status;
+    private String phase;
+    private LocalDateTime created;
+    private LocalDateTime completed;
+    private long elapsedMillis;
+    private int totalShards;
+    private int runningShards;
+    private int processedShards;
+    private int failedShards;
+    private int processedUsers;
+    private int emailsQueued;
+    private int emailsFailedToQueue;
+    private int emailsPending;
+    private int emailsSent;
+    private int emailsFailed;
+
+    public UUID getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(final UUID jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(final String status) {
+        this.status = status;
+    }
+
+    public String getPhase() {
+        return phase;
+    }
+
+    public void setPhase(final String phase) {
+        this.phase = phase;
+    }
+
+    public LocalDateTime getCreated() {
+        return created;
+    }
+
+    public void setCreated(final LocalDateTime created) {
+        this.created = created;
+    }
+
+    public LocalDateTime getCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(final LocalDateTime completed) {
+        this.completed = completed;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(final long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public int getTotalShards() {
+        return totalShards;
+    }
+
+    public void setTotalShards(final int totalShards) {
+        this.totalShards = totalShards;
+    }
+
+    public int getRunningShards() {
+        return runningShards;
+    }
+
+    public void setRunningShards(final int runningShards) {
+        this.runningShards = runningShards;
+    }
+
+    public int getProcessedShards() {
+        return processedShards;
+    }
+
+    public void setProcessedShards(final int processedShards) {
+        this.processedShards = processedShards;
+    }
+
+    public int getFailedShards() {
+        return failedShards;
+    }
+
+    public void setFailedShards(final int failedShards) {
+        this.failedShards = failedShards;
+    }
+
+    public int getProcessedUsers() {
+        return processedUsers;
+    }
+
+    public void setProcessedUsers(final int processedUsers) {
+        this.processedUsers = processedUsers;
+    }
+
+    public int getEmailsQueued() {
+        return emailsQueued;
+    }
+
+    public void setEmailsQueued(final int emailsQueued) {
+        this.emailsQueued = emailsQueued;
+    }
+
+    public int getEmailsFailedToQueue() {
+        return emailsFailedToQueue;
+    }
+
+    public void setEmailsFailedToQueue(final int emailsFailedToQueue) {
+        this.emailsFailedToQueue = emailsFailedToQueue;
+    }
+
+    public int getEmailsPending() {
+        return emailsPending;
+    }
+
+    public void setEmailsPending(final int emailsPending) {
+        this.emailsPending = emailsPending;
+    }
+
+    public int getEmailsSent() {
+        return emailsSent;
+    }
+
+    public void setEmailsSent(final int emailsSent) {
+        this.emailsSent = emailsSent;
+    }
+
+    public int getEmailsFailed() {
+        return emailsFailed;
+    }
+
+    public void setEmailsFailed(final int emailsFailed) {
+        this.emailsFailed = emailsFailed;
+    }
+}
@@ -0,0 +1,134 @@
+package fi.vm.yti.messaging.entity;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
+import javax.persistence.Table;
+import javax.persistence.Transient;
+
+import org.springframework.data.domain.Persistable;
+
+@Entity
+@Table(name = "email_outbox")
+public class EmailOutboxMessage implements Persistable<UUID> {
+
+    private UUID id;
+    private UUID userId;
+    private String body;
+    private String status;
+    private int attempts;
+    private LocalDateTime nextAttempt;
+    private String lastError;
+    private LocalDateTime created;
+    private LocalDateTime sent;
+    private UUID runId;
+    private boolean newMessage = true;
+
+    @Id
+    @Column(name = "id", unique = true)
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(final UUID id) {
+        this.id = id;
+    }
+
+    @Column(name = "user_id")
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public void setUserId(final UUID userId) {
+        this.userId = userId;
+    }
+
+    @Column(name = "body")
+    public String getBody() {
+        return body;
+    }
+
+    public void setBody(final String body) {
+        this.body = body;
+    }
+
+    @Column(name = "status")
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(final String status) {
+        this.status = status;
+    }
+
+    @Column(name = "attempts")
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(final int attempts) {
+        this.attempts = attempts;
+    }
+
+    @Column(name = "next_attempt", insertable = false, updatable = false)
+    public LocalDateTime getNextAttempt() {
+        return nextAttempt;
+    }
+
+    public void setNextAttempt(final LocalDateTime nextAttempt) {
+        this.nextAttempt = nextAttempt;
+    }
+
+    @Column(name = "last_error")
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(final String lastError) {
+        this.lastError = lastError;
+    }
+
+    @Column(name = "created", insertable = false, updatable = false)
+    public LocalDateTime getCreated() {
+        return created;
+    }
+
+    public void setCreated(final LocalDateTime created) {
+        this.created = created;
+    }
+
+    @Column(name = "sent", insertable = false, updatable = false)
+    public LocalDateTime getSent() {
+        return sent;
+    }
+
+    public void setSent(final LocalDateTime sent) {
+        this.sent = sent;
+    }
+
+    @Column(name = "run_id")
+    public UUID getRunId() {
+        return runId;
+    }
+
+    public void setRunId(final UUID runId) {
+        this.runId = runId;
+    }
+
+    @Transient
+    @Override
+    public boolean isNew() {
+        return newMessage;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newMessage = false;
+    }
+}
@@ -0,0 +1,35 @@
+package fi.vm.yti.messaging.entity;
+
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+@Entity
+@Table(name = "integration_watermark")
+public class IntegrationWatermark {
+
+    private String application;
+    private Instant watermark;
+
+    @Id
+    @Column(name = "application", unique = true)
+    public String getApplication() {
+        return application;
+    }
+
+    public void setApplication(final String application) {
+        this.application = application;
+    }
+
+    @Column(name = "watermark")
+    public Instant getWatermark() {
+        return watermark;
+    }
+
+    public void setWatermark(final Instant watermark) {
+        this.watermark = watermark;
+    }
+}
@@ -0,0 +1,65 @@
+package fi.vm.yti.messaging.entity;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+@Entity
+@Table(name = "job_lease")
+public class JobLease {
+
+    private String jobName;
+    private String owner;
+    private LocalDateTime acquired;
+    private LocalDateTime expires;
+    private LocalDateTime released;
+
+    @Id
+    @Column(name = "job_name", unique = true)
+    public String getJobName() {
+        return jobName;
+    }
+
+    public void setJobName(final String jobName) {
+        this.jobName = jobName;
+    }
+
+    @Column(name = "owner")
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(final String owner) {
+        this.owner = owner;
+    }
+
+    @Column(name = "acquired")
+    public LocalDateTime getAcquired() {
+        return acquired;
+    }
+
+    public void setAcquired(final LocalDateTime acquired) {
+        this.acquired = acquired;
+    }
+
+    @Column(name = "expires")
+    public LocalDateTime getExpires() {
+        return expires;
+    }
+
+    public void setExpires(final LocalDateTime expires) {
+        this.expires = expires;
+    }
+
+    @Column(name = "released")
+    public LocalDateTime getReleased() {
+        return released;
+    }
+
+    public void setReleased(final LocalDateTime released) {
+        this.released = released;
+    }
+}
@@ -0,0 +1,66 @@
+package fi.vm.yti.messaging.entity;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+@Entity
+@Table(name = "notification_run")
+public class NotificationRunRecord {
+
+    private UUID id;
+    private String status;
+    private int shardCount;
+    private LocalDateTime created;
+    private LocalDateTime completed;
+
+    @Id
+    @Column(name = "id", unique = true)
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(final UUID id) {
+        this.id = id;
+    }
+
+    @Column(name = "status")
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(final String status) {
+        this.status = status;
+    }
+
+    @Column(name = "shard_count")
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public void setShardCount(final int shardCount) {
+        this.shardCount = shardCount;
+    }
+
+    @Column(name = "created", insertable = false, updatable = false)
+    public LocalDateTime getCreated() {
+        return created;
+    }
+
+    public void setCreated(final LocalDateTime created) {
+        this.created = created;
+    }
+
+    @Column(name = "completed", insertable = false, updatable = false)
+    public LocalDateTime getCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(final LocalDateTime completed) {
+        this.completed = completed;
+    }
+}
@@ -0,0 +1,76 @@
+package fi.vm.yti.messaging.entity;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+@Entity
+@Table(name = "notification_run_window")
+public class NotificationRunWindow {
+
+    private UUID id;
+    private UUID runId;
+    private String application;
+    private String subscriptionType;
+    private Instant windowAfter;
+    private Instant windowBefore;
+
+    @Id
+    @Column(name = "id", unique = true)
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(final UUID id) {
+        this.id = id;
+    }
+
+    @Column(name = "run_id")
+    public UUID getRunId() {
+        return runId;
+    }
+
+    public void setRunId(final UUID runId) {
+        this.runId = runId;
+    }
+
+    @Column(name = "application")
+    public String getApplication() {
+        return application;
+    }
+
+    public void setApplication(final String application) {
+        this.application = application;
+    }
+
+    @Column(name = "subscription_type")
+    public String getSubscriptionType() {
+        return subscriptionType;
+    }
+
+    public void setSubscriptionType(final String subscriptionType) {
+        this.subscriptionType = subscriptionType;
+    }
+
+    @Column(name = "window_after")
+    public Instant getWindowAfter() {
+        return windowAfter;
+    }
+
+    public void setWindowAfter(final Instant windowAfter) {
+        this.windowAfter = windowAfter;
+    }
+
+    @Column(name = "window_before")
+    public Instant getWindowBefore() {
+        return windowBefore;
+    }
+
+    public void setWindowBefore(final Instant windowBefore) {
+        this.windowBefore = windowBefore;
+    }
+}
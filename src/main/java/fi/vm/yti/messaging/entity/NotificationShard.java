@@ -0,0 +1,126 @@
+package fi.vm.yti.messaging.entity;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+@Entity
+@Table(name = "notification_shard")
+public class NotificationShard {
+
+    private UUID id;
+    private UUID runId;
+    private int shard;
+    private String status;
+    private String owner;
+    private LocalDateTime leaseExpires;
+    private int attempts;
+    private int matchedUsers;
+    private int queued;
+    private int failed;
+    private LocalDateTime completed;
+
+    @Id
+    @Column(name = "id", unique = true)
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(final UUID id) {
+        this.id = id;
+    }
+
+    @Column(name = "run_id")
+    public UUID getRunId() {
+        return runId;
+    }
+
+    public void setRunId(final UUID runId) {
+        this.runId = runId;
+    }
+
+    @Column(name = "shard")
+    public int getShard() {
+        return shard;
+    }
+
+    public void setShard(final int shard) {
+        this.shard = shard;
+    }
+
+    @Column(name = "status")
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(final String status) {
+        this.status = status;
+    }
+
+    @Column(name = "owner")
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(final String owner) {
+        this.owner = owner;
+    }
+
+    @Column(name = "lease_expires")
+    public LocalDateTime getLeaseExpires() {
+        return leaseExpires;
+    }
+
+    public void setLeaseExpires(final LocalDateTime leaseExpires) {
+        this.leaseExpires = leaseExpires;
+    }
+
+    @Column(name = "attempts")
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(final int attempts) {
+        this.attempts = attempts;
+    }
+
+    @Column(name = "matched_users")
+    public int getMatchedUsers() {
+        return matchedUsers;
+    }
+
+    public void setMatchedUsers(final int matchedUsers) {
+        this.matchedUsers = matchedUsers;
+    }
+
+    @Column(name = "queued")
+    public int getQueued() {
+        return queued;
+    }
+
+    public void setQueued(final int queued) {
+        this.queued = queued;
+    }
+
+    @Column(name = "failed")
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(final int failed) {
+        this.failed = failed;
+    }
+
+    @Column(name = "completed", insertable = false, updatable = false)
+    public LocalDateTime getCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(final LocalDateTime completed) {
+        this.completed = completed;
+    }
+}
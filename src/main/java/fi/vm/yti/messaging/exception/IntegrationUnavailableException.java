@@ -0,0 +1,26 @@
+package fi.vm.yti.messaging.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import fi.vm.yti.messaging.dto.ErrorModel;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class IntegrationUnavailableException extends YtiMessagingException {
+
+    private final boolean retryable;
+
+    public IntegrationUnavailableException(final String message) {
+        this(message, false);
+    }
+
+    public IntegrationUnavailableException(final String message,
+                                           final boolean retryable) {
+        super(new ErrorModel(HttpStatus.SERVICE_UNAVAILABLE.value(), message));
+        this.retryable = retryable;
+    }
+
+    public boolean isRetryable() {
+        return retryable;
+    }
+}
@@ -0,0 +1,41 @@
+package fi.vm.yti.messaging.jpa;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import fi.vm.yti.messaging.entity.EmailOutboxMessage;
+
+@Repository
+@Transactional(propagation = Propagation.REQUIRES_NEW)
+public interface EmailOutboxRepository extends CrudRepository<EmailOutboxMessage, UUID> {
+
+    @Query(value = "UPDATE email_outbox SET status = 'SENDING', attempts = attempts + 1, next_attempt = NOW() + make_interval(secs => :leaseSeconds) WHERE id IN (SELECT id FROM email_outbox WHERE status IN ('PENDING', 'SENDING') AND next_attempt <= NOW() ORDER BY next_attempt LIMIT :limit FOR UPDATE SKIP LOCKED) RETURNING *", nativeQuery = true)
+    List<EmailOutboxMessage> claimPendingMessages(@Param(value = "limit") final int limit,
+                                                  @Param(value = "leaseSeconds") final long leaseSeconds);
+
+    @Modifying
+    @Query(value = "UPDATE email_outbox SET status = 'SENT', sent = NOW(), last_error = NULL WHERE id = :id", nativeQuery = true)
+    int markSent(@Param(value = "id") final UUID id);
+
+    @Modifying
+    @Query(value = "UPDATE email_outbox SET status = :status, next_attempt = NOW() + make_interval(secs => :retryDelaySeconds), last_error = :lastError WHERE id = :id", nativeQuery = true)
+    int markFailed(@Param(value = "id") final UUID id,
+                   @Param(value = "status") final String status,
+                   @Param(value = "retryDelaySeconds") final long retryDelaySeconds,
+                   @Param(value = "lastError") final String lastError);
+
+    @Query(value = "SELECT status, COUNT(*) FROM email_outbox WHERE run_id = :runId GROUP BY status", nativeQuery = true)
+    List<Object[]> countByRunIdGroupByStatus(@Param(value = "runId") final UUID runId);
+
+    @Modifying
+    @Query(value = "DELETE FROM email_outbox WHERE status = 'SENT' AND sent < NOW() - make_interval(secs => :retentionSeconds)", nativeQuery = true)
+    int deleteSentBefore(@Param(value = "retentionSeconds") final long retentionSeconds);
+}
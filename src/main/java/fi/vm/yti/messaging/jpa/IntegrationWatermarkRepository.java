@@ -0,0 +1,24 @@
+package fi.vm.yti.messaging.jpa;
+
+import java.sql.Timestamp;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import fi.vm.yti.messaging.entity.IntegrationWatermark;
+
+@Repository
+@Transactional
+public interface IntegrationWatermarkRepository extends CrudRepository<IntegrationWatermark, String> {
+
+    IntegrationWatermark findByApplication(final String application);
+
+    @Modifying
+    @Query(value = "INSERT INTO integration_watermark (application, watermark, modified) VALUES (:application, :watermark, NOW()) ON CONFLICT (application) DO UPDATE SET watermark = EXCLUDED.watermark, modified = NOW() WHERE integration_watermark.watermark < EXCLUDED.watermark", nativeQuery = true)
+    int advanceWatermark(@Param(value = "application") final String application,
+                         @Param(value = "watermark") final Timestamp watermark);
+}
@@ -0,0 +1,32 @@
+package fi.vm.yti.messaging.jpa;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import fi.vm.yti.messaging.entity.JobLease;
+
+@Repository
+@Transactional(propagation = Propagation.REQUIRES_NEW)
+public interface JobLeaseRepository extends CrudRepository<JobLease, String> {
+
+    List<JobLease> findAllByOrderByJobName();
+
+    @Modifying
+    @Query(value = "INSERT INTO job_lease (job_name, owner, acquired, expires) VALUES (:jobName, :owner, NOW(), NOW() + make_interval(secs => :leaseSeconds)) ON CONFLICT (job_name) DO UPDATE SET owner = EXCLUDED.owner, acquired = EXCLUDED.acquired, expires = EXCLUDED.expires, released = NULL WHERE job_lease.expires <= NOW()", nativeQuery = true)
+    int acquireLease(@Param(value = "jobName") final String jobName,
+                     @Param(value = "owner") final String owner,
+                     @Param(value = "leaseSeconds") final long leaseSeconds);
+
+    @Modifying
+    @Query(value = "UPDATE job_lease SET expires = GREATEST(NOW(), acquired + make_interval(secs => :minimumHoldSeconds)), released = NOW() WHERE job_name = :jobName AND owner = :owner AND released IS NULL", nativeQuery = true)
+    int releaseLease(@Param(value = "jobName") final String jobName,
+                     @Param(value = "owner") final String owner,
+                     @Param(value = "minimumHoldSeconds") final long minimumHoldSeconds);
+}
@@ -0,0 +1,30 @@
+package fi.vm.yti.messaging.jpa;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import fi.vm.yti.messaging.entity.NotificationRunRecord;
+
+@Repository
+@Transactional
+public interface NotificationRunRecordRepository extends CrudRepository<NotificationRunRecord, UUID> {
+
+    NotificationRunRecord findFirstByStatusOrderByCreatedDesc(final String status);
+
+    @Query(value = "SELECT COUNT(s.id), COUNT(s.id) FILTER (WHERE s.status = 'RUNNING'), COUNT(s.id) FILTER (WHERE s.status IN ('COMPLETED', 'FAILED')), COUNT(s.id) FILTER (WHERE s.status = 'FAILED'), COALESCE(SUM(s.matched_users), 0), COALESCE(SUM(s.queued), 0), COALESCE(SUM(s.failed), 0), CAST(EXTRACT(EPOCH FROM (COALESCE(r.completed, CAST(NOW() AS timestamp)) - r.created)) * 1000 AS bigint) FROM notification_run AS r LEFT JOIN notification_shard AS s ON s.run_id = r.id WHERE r.id = :runId GROUP BY r.id", nativeQuery = true)
+    List<Object[]> summarizeRun(@Param(value = "runId") final UUID runId);
+
+    @Modifying
+    @Query(value = "UPDATE notification_run SET status = 'ABANDONED', completed = NOW() WHERE status = 'OPEN' AND created < CAST(NOW() AS timestamp) - make_interval(secs => :staleSeconds) AND NOT EXISTS (SELECT 1 FROM notification_shard AS s WHERE s.run_id = notification_run.id AND s.status = 'RUNNING' AND s.lease_expires > NOW())", nativeQuery = true)
+    int abandonStaleRuns(@Param(value = "staleSeconds") final long staleSeconds);
+
+    @Query(value = "UPDATE notification_run SET status = CASE WHEN EXISTS (SELECT 1 FROM notification_shard WHERE run_id = :runId AND status = 'FAILED') THEN 'FAILED' ELSE 'COMPLETED' END, completed = NOW() WHERE id = :runId AND status = 'OPEN' AND NOT EXISTS (SELECT 1 FROM notification_shard WHERE run_id = :runId AND status IN ('PENDING', 'RUNNING')) RETURNING *", nativeQuery = true)
+    List<NotificationRunRecord> finishRun(@Param(value = "runId") final UUID runId);
+}
@@ -0,0 +1,17 @@
+package fi.vm.yti.messaging.jpa;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import fi.vm.yti.messaging.entity.NotificationRunWindow;
+
+@Repository
+@Transactional
+public interface NotificationRunWindowRepository extends CrudRepository<NotificationRunWindow, UUID> {
+
+    List<NotificationRunWindow> findByRunId(final UUID runId);
+}
@@ -0,0 +1,35 @@
+package fi.vm.yti.messaging.jpa;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import fi.vm.yti.messaging.entity.NotificationShard;
+
+@Repository
+@Transactional
+public interface NotificationShardRepository extends CrudRepository<NotificationShard, UUID> {
+
+    @Query(value = "UPDATE notification_shard SET status = 'RUNNING', owner = :owner, lease_expires = NOW() + make_interval(secs => :leaseSeconds), attempts = attempts + 1 WHERE id = (SELECT s.id FROM notification_shard AS s JOIN notification_run AS r ON r.id = s.run_id WHERE r.status = 'OPEN' AND s.attempts < :maxAttempts AND (s.status = 'PENDING' OR (s.status = 'RUNNING' AND s.lease_expires <= NOW())) ORDER BY s.attempts, s.shard LIMIT 1 FOR UPDATE OF s SKIP LOCKED) RETURNING *", nativeQuery = true)
+    List<NotificationShard> claimShard(@Param(value = "owner") final String owner,
+                                       @Param(value = "leaseSeconds") final long leaseSeconds,
+                                       @Param(value = "maxAttempts") final int maxAttempts);
+
+    @Query(value = "UPDATE notification_shard SET status = 'FAILED', completed = NOW() WHERE status = 'RUNNING' AND lease_expires <= NOW() AND attempts >= :maxAttempts RETURNING *", nativeQuery = true)
+    List<NotificationShard> failExhaustedShards(@Param(value = "maxAttempts") final int maxAttempts);
+
+    @Modifying
+    @Query(value = "UPDATE notification_shard SET status = :status, matched_users = :matchedUsers, queued = :queued, failed = :failed, completed = NOW() WHERE id = :id AND owner = :owner AND status = 'RUNNING'", nativeQuery = true)
+    int completeShard(@Param(value = "id") final UUID id,
+                      @Param(value = "owner") final String owner,
+                      @Param(value = "status") final String status,
+                      @Param(value = "matchedUsers") final int matchedUsers,
+                      @Param(value = "queued") final int queued,
+                      @Param(value = "failed") final int failed);
+}
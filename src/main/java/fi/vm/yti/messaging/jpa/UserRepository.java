@@ -2,14 +2,33 @@ package fi.vm.yti.messaging.jpa;
 
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+import javax.persistence.QueryHint;
+
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
 import fi.vm.yti.messaging.entity.User;
 
 public interface UserRepository extends CrudRepository<User, String> {
 
+    String SUBSCRIPTION_FETCH_SIZE = "500";
+
     User findById(final UUID id);
 
     Set<User> findAll();
+
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM \"user\" AS u WHERE UPPER(u.subscription_type) = UPPER(:subscriptionType))", nativeQuery = true)
+    boolean existsBySubscriptionType(@Param(value = "subscriptionType") final String subscriptionType);
+
+    @QueryHints(value = @QueryHint(name = QueryHints.HINT_FETCH_SIZE, value = SUBSCRIPTION_FETCH_SIZE))
+    @Query(value = "SELECT CAST(ur.user_id AS text), r.uri, r.application, r.type FROM user_resource AS ur JOIN \"user\" AS u ON u.id = ur.user_id JOIN resource AS r ON r.uri = ur.resource_uri WHERE ur.resource_uri = ANY(string_to_array(:resourceUris, chr(10))) AND UPPER(u.subscription_type) = UPPER(:subscriptionType) AND MOD(ABS(CAST(hashtext(CAST(ur.user_id AS text)) AS bigint)), :shardCount) = :shard ORDER BY ur.user_id", nativeQuery = true)
+    Stream<Object[]> streamSubscriptionsByResourceUris(@Param(value = "resourceUris") final String resourceUris,
+                                                       @Param(value = "subscriptionType") final String subscriptionType,
+                                                       @Param(value = "shardCount") final int shardCount,
+                                                       @Param(value = "shard") final int shard);
 }
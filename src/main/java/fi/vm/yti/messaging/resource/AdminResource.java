@@ -1,17 +1,21 @@
 package fi.vm.yti.messaging.resource;
 
+import java.net.URI;
 import java.util.UUID;
 
 import javax.ws.rs.Consumes;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
 import org.springframework.stereotype.Component;
 
+import fi.vm.yti.messaging.dto.NotificationJobDTO;
 import fi.vm.yti.messaging.exception.UnauthorizedException;
 import fi.vm.yti.messaging.security.AuthorizationManager;
 import fi.vm.yti.messaging.service.NotificationService;
@@ -40,13 +44,49 @@ public class AdminResource {
     @Path("/notify")
     @Consumes(MediaType.APPLICATION_JSON)
     @Produces(MediaType.APPLICATION_JSON)
-    @Operation(summary = "Send e-mail notifications to everyone.")
-    @ApiResponse(responseCode = "200", description = "Notifications sent successfully.")
+    @Operation(summary = "Start sending e-mail notifications to everyone in the background.")
+    @ApiResponse(responseCode = "200", description = "No digests are due, nothing to plan.")
+    @ApiResponse(responseCode = "202", description = "Notification job started, or an already running job joined.")
     @ApiResponse(responseCode = "401", description = "Authentication failed.")
+    @ApiResponse(responseCode = "409", description = "A notification job is being planned or has just finished.")
     public Response sendNotifications() {
         if (authorizationManager.isSuperUser()) {
-            notificationService.sendAllNotifications();
-            return Response.ok().build();
+            final NotificationJobDTO job = notificationService.triggerNotificationRun();
+            if (job.getJobId() == null) {
+                return Response.ok(job).build();
+            }
+            return Response.accepted(job).location(URI.create("v1/admin/notify/jobs/" + job.getJobId())).build();
+        }
+        throw new UnauthorizedException();
+    }
+
+    @GET
+    @Path("/notify/dryrun")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Fetch, match and render notifications without sending any e-mail, reporting phase timings and digest counts.")
+    @ApiResponse(responseCode = "200", description = "Dry run finished.")
+    @ApiResponse(responseCode = "400", description = "Unknown digest subscription type.")
+    @ApiResponse(responseCode = "401", description = "Authentication failed.")
+    public Response dryRunNotifications(@Parameter(description = "Digest subscription type to simulate.", in = ParameterIn.QUERY) @QueryParam("subscriptionType") @DefaultValue("DAILY") final String subscriptionType,
+                                        @Parameter(description = "Write the rendered bodies to the configured dry run output directory.", in = ParameterIn.QUERY) @QueryParam("writeBodies") @DefaultValue("false") final boolean writeBodies) {
+        if (authorizationManager.isSuperUser()) {
+            return Response.ok(notificationService.dryRunNotifications(subscriptionType, writeBodies)).build();
+        }
+        throw new UnauthorizedException();
+    }
+
+    @GET
+    @Path("/notify/jobs/{jobId}")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.APPLICATION_JSON)
+    @Operation(summary = "Get the progress of a notification job.")
+    @ApiResponse(responseCode = "200", description = "Notification job status.")
+    @ApiResponse(responseCode = "401", description = "Authentication failed.")
+    @ApiResponse(responseCode = "404", description = "Notification job not found.")
+    public Response getNotificationJob(@Parameter(description = "Notification job ID.", required = true, in = ParameterIn.PATH) @PathParam("jobId") final UUID jobId) {
+        if (authorizationManager.isSuperUser()) {
+            return Response.ok(notificationService.getNotificationJob(jobId)).build();
         }
         throw new UnauthorizedException();
     }
@@ -0,0 +1,23 @@
+package fi.vm.yti.messaging.service;
+
+import java.util.Map;
+import java.util.UUID;
+
+import fi.vm.yti.messaging.service.impl.EmailOutboxStatus;
+
+public interface EmailOutboxService {
+
+    void queueMail(final UUID userId,
+                   final String message);
+
+    void queueMails(final Map<UUID, String> messages);
+
+    void queueMails(final Map<UUID, String> messages,
+                    final UUID runId);
+
+    Map<EmailOutboxStatus, Integer> countMailsByRun(final UUID runId);
+
+    void dispatchPendingMails();
+
+    void purgeSentMails();
+}
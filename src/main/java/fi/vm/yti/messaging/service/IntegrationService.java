@@ -1,7 +1,12 @@
 package fi.vm.yti.messaging.service;
 
+import java.util.Iterator;
 import java.util.Set;
+import java.util.function.Consumer;
 
+import fi.vm.yti.messaging.api.Meta;
+import fi.vm.yti.messaging.dto.ChangeWindowDTO;
+import fi.vm.yti.messaging.dto.IntegrationResourceDTO;
 import fi.vm.yti.messaging.dto.IntegrationResponseDTO;
 
 public interface IntegrationService {
@@ -14,8 +19,22 @@ public interface IntegrationService {
                                                     final boolean fetchDateRangeChanges,
                                                     final boolean getLatest);
 
+    IntegrationResponseDTO getIntegrationContainers(final String applicationIdentifier,
+                                                    final Set<String> containerUris,
+                                                    final ChangeWindowDTO changeWindow);
+
+    Meta streamIntegrationContainers(final String applicationIdentifier,
+                                     final Set<String> containerUris,
+                                     final ChangeWindowDTO changeWindow,
+                                     final Consumer<IntegrationResourceDTO> consumer);
+
     IntegrationResponseDTO getIntegrationResources(final String applicationIdentifier,
                                                    final String containerUri,
                                                    final boolean fetchDateRangeChanges,
                                                    final boolean getLatest);
+
+    Iterator<IntegrationResourceDTO> iterateIntegrationResources(final String applicationIdentifier,
+                                                                 final String containerUri,
+                                                                 final boolean fetchDateRangeChanges,
+                                                                 final boolean getLatest);
 }
@@ -0,0 +1,20 @@
+package fi.vm.yti.messaging.service;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import fi.vm.yti.messaging.dto.ChangeWindowDTO;
+
+public interface IntegrationWatermarkService {
+
+    ChangeWindowDTO openChangeWindow(final String applicationIdentifier);
+
+    ChangeWindowDTO openChangeWindow(final String applicationIdentifier,
+                                     final String subscriptionType,
+                                     final Duration initialLookback);
+
+    Instant findWatermark(final String applicationIdentifier,
+                          final String subscriptionType);
+
+    void advanceWatermark(final ChangeWindowDTO changeWindow);
+}
@@ -0,0 +1,21 @@
+package fi.vm.yti.messaging.service;
+
+import java.time.Duration;
+import java.util.List;
+
+import fi.vm.yti.messaging.dto.JobLeaseDTO;
+
+public interface JobLeaseService {
+
+    boolean runWithLease(final String jobName,
+                         final Runnable job);
+
+    boolean runWithLease(final String jobName,
+                         final Duration leaseDuration,
+                         final Duration minimumHold,
+                         final Runnable job);
+
+    String getOwner();
+
+    List<JobLeaseDTO> getJobLeases();
+}
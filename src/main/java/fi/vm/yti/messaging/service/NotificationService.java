@@ -2,9 +2,19 @@ package fi.vm.yti.messaging.service;
 
 import java.util.UUID;
 
+import fi.vm.yti.messaging.dto.NotificationDryRunDTO;
+import fi.vm.yti.messaging.dto.NotificationJobDTO;
+
 public interface NotificationService {
 
     void sendAllNotifications();
 
+    NotificationJobDTO triggerNotificationRun();
+
+    NotificationJobDTO getNotificationJob(final UUID jobId);
+
     void sendUserNotifications(final UUID userId);
+
+    NotificationDryRunDTO dryRunNotifications(final String subscriptionType,
+                                              final boolean writeBodies);
 }
@@ -1,7 +1,9 @@
 package fi.vm.yti.messaging.service;
 
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import org.springframework.stereotype.Service;
 
@@ -29,4 +31,13 @@ public interface UserService {
     UserDTO findById(final UUID userId);
 
     Set<UserDTO> findAll();
+
+    boolean hasSubscribers(final String subscriptionType);
+
+    void streamSubscriptionsByResourceUris(final Set<String> resourceUris,
+                                           final String subscriptionType,
+                                           final int shardCount,
+                                           final int shard,
+                                           final int chunkSize,
+                                           final Consumer<Map<UUID, Set<ResourceDTO>>> chunkConsumer);
 }
@@ -17,6 +17,7 @@ import fi.vm.yti.messaging.configuration.MessagingServiceProperties;
 import fi.vm.yti.messaging.dto.IntegrationResourceDTO;
 import fi.vm.yti.messaging.dto.IntegrationResponseDTO;
 import fi.vm.yti.messaging.dto.ResourceDTO;
+import fi.vm.yti.messaging.exception.IntegrationUnavailableException;
 import fi.vm.yti.messaging.service.ContainerNameService;
 import fi.vm.yti.messaging.service.IntegrationService;
 import fi.vm.yti.messaging.service.ResourceService;
@@ -60,7 +61,13 @@ public class ContainerNameServiceImpl implements ContainerNameService {
         final String applicationIdentifier = getApplicationByType(type);
         final Set<String> uris = new HashSet<>();
         uris.add(uri);
-        final IntegrationResponseDTO integrationResponse = integrationService.getIntegrationContainers(applicationIdentifier, uris);
+        final IntegrationResponseDTO integrationResponse;
+        try {
+            integrationResponse = integrationService.getIntegrationContainers(applicationIdentifier, uris);
+        } catch (final IntegrationUnavailableException e) {
+            LOG.warn("PrefLabel not fetched for uri: " + uri + ", " + e.getMessage());
+            return;
+        }
         final List<IntegrationResourceDTO> integrationResources = integrationResponse.getResults();
         if (integrationResources != null && !integrationResources.isEmpty()) {
             integrationResources.forEach(this::addPrefLabel);
@@ -84,7 +91,13 @@ public class ContainerNameServiceImpl implements ContainerNameService {
             final Set<String> containerUris = new HashSet<>();
             containerResources.forEach(container -> containerUris.add(container.getUri()));
             if (!containerUris.isEmpty()) {
-                final IntegrationResponseDTO integrationResponse = integrationService.getIntegrationContainers(applicationIdentifier, containerUris);
+                final IntegrationResponseDTO integrationResponse;
+                try {
+                    integrationResponse = integrationService.getIntegrationContainers(applicationIdentifier, containerUris);
+                } catch (final IntegrationUnavailableException e) {
+                    LOG.warn("PrefLabels not fetched for application: " + applicationIdentifier + ", " + e.getMessage());
+                    return;
+                }
                 final List<IntegrationResourceDTO> integrationResources = integrationResponse.getResults();
                 if (integrationResources != null && !integrationResources.isEmpty()) {
                     integrationResources.forEach(integrationResource -> {
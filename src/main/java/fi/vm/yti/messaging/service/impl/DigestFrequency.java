@@ -0,0 +1,70 @@
+package fi.vm.yti.messaging.service.impl;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
+public enum DigestFrequency {
+
+    HOURLY(Duration.ofHours(1)) {
+        ZonedDateTime previousFireTime(final ZonedDateTime now,
+                                       final int digestHour) {
+            return now.truncatedTo(ChronoUnit.HOURS);
+        }
+    },
+    DAILY(Duration.ofDays(1)) {
+        ZonedDateTime previousFireTime(final ZonedDateTime now,
+                                       final int digestHour) {
+            final ZonedDateTime today = atDigestHour(now, digestHour);
+            return today.isAfter(now) ? today.minusDays(1) : today;
+        }
+    },
+    WEEKLY(Duration.ofDays(7)) {
+        ZonedDateTime previousFireTime(final ZonedDateTime now,
+                                       final int digestHour) {
+            final ZonedDateTime monday = atDigestHour(now, digestHour).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            return monday.isAfter(now) ? monday.minusWeeks(1) : monday;
+        }
+    },
+    MONTHLY(Duration.ofDays(31)) {
+        ZonedDateTime previousFireTime(final ZonedDateTime now,
+                                       final int digestHour) {
+            final ZonedDateTime firstOfMonth = atDigestHour(now, digestHour).withDayOfMonth(1);
+            return firstOfMonth.isAfter(now) ? firstOfMonth.minusMonths(1) : firstOfMonth;
+        }
+    },
+    YEARLY(Duration.ofDays(366)) {
+        ZonedDateTime previousFireTime(final ZonedDateTime now,
+                                       final int digestHour) {
+            final ZonedDateTime firstOfYear = atDigestHour(now, digestHour).withDayOfYear(1);
+            return firstOfYear.isAfter(now) ? firstOfYear.minusYears(1) : firstOfYear;
+        }
+    };
+
+    private final Duration period;
+
+    DigestFrequency(final Duration period) {
+        this.period = period;
+    }
+
+    public Duration getPeriod() {
+        return period;
+    }
+
+    public boolean isDue(final Instant watermark,
+                         final ZonedDateTime now,
+                         final int digestHour) {
+        return watermark == null || watermark.isBefore(previousFireTime(now, digestHour).toInstant());
+    }
+
+    abstract ZonedDateTime previousFireTime(final ZonedDateTime now,
+                                            final int digestHour);
+
+    private static ZonedDateTime atDigestHour(final ZonedDateTime now,
+                                              final int digestHour) {
+        return now.truncatedTo(ChronoUnit.DAYS).withHour(digestHour);
+    }
+}
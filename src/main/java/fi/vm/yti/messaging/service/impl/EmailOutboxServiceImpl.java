@@ -0,0 +1,127 @@
+package fi.vm.yti.messaging.service.impl;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import fi.vm.yti.messaging.configuration.EmailProperties;
+import fi.vm.yti.messaging.dao.EmailOutboxDao;
+import fi.vm.yti.messaging.entity.EmailOutboxMessage;
+import fi.vm.yti.messaging.service.EmailOutboxService;
+import fi.vm.yti.messaging.service.EmailService;
+import fi.vm.yti.messaging.service.JobLeaseService;
+
+@Service
+public class EmailOutboxServiceImpl implements EmailOutboxService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EmailOutboxServiceImpl.class);
+    private static final String JOB_PURGE_SENT_MAILS = "purgeSentMails";
+
+    private final EmailOutboxDao emailOutboxDao;
+    private final EmailService emailService;
+    private final EmailProperties emailProperties;
+    private final JobLeaseService jobLeaseService;
+    private final ExecutorService dispatchExecutor;
+
+    @Inject
+    public EmailOutboxServiceImpl(final EmailOutboxDao emailOutboxDao,
+                                  final EmailService emailService,
+                                  final EmailProperties emailProperties,
+                                  final JobLeaseService jobLeaseService) {
+        this.emailOutboxDao = emailOutboxDao;
+        this.emailService = emailService;
+        this.emailProperties = emailProperties;
+        this.jobLeaseService = jobLeaseService;
+        this.dispatchExecutor = Executors.newFixedThreadPool(emailProperties.getOutboxConcurrency(), new CustomizableThreadFactory("email-outbox-"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatchExecutor.shutdownNow();
+    }
+
+    public void queueMail(final UUID userId,
+                          final String message) {
+        queueMails(Collections.singletonMap(userId, message));
+    }
+
+    public void queueMails(final Map<UUID, String> messages) {
+        queueMails(messages, null);
+    }
+
+    public void queueMails(final Map<UUID, String> messages,
+                           final UUID runId) {
+        if (messages != null && !messages.isEmpty()) {
+            emailOutboxDao.queueMessages(messages, runId);
+        }
+    }
+
+    public Map<EmailOutboxStatus, Integer> countMailsByRun(final UUID runId) {
+        return emailOutboxDao.countMessagesByRun(runId);
+    }
+
+    @Scheduled(fixedDelayString = "${email.outboxPollInterval:10000}")
+    public void dispatchPendingMails() {
+        final List<EmailOutboxMessage> messages = emailOutboxDao.claimPendingMessages(emailProperties.getOutboxBatchSize(), emailProperties.getOutboxLease());
+        if (!messages.isEmpty()) {
+            final CompletableFuture<?>[] deliveries = messages.stream()
+                .map(message -> CompletableFuture.runAsync(() -> deliver(message), dispatchExecutor))
+                .toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(deliveries).join();
+            LOG.info("Dispatched " + messages.size() + " e-mails from outbox.");
+        }
+    }
+
+    @Scheduled(cron = "0 30 3 * * *", zone = "Europe/Helsinki")
+    public void purgeSentMails() {
+        jobLeaseService.runWithLease(JOB_PURGE_SENT_MAILS, () -> {
+            final int deletedCount = emailOutboxDao.deleteSentBefore(emailProperties.getOutboxRetention());
+            LOG.info("Purged " + deletedCount + " sent e-mails from outbox.");
+        });
+    }
+
+    private void deliver(final EmailOutboxMessage message) {
+        if (message.getAttempts() > emailProperties.getOutboxMaxAttempts()) {
+            emailOutboxDao.markFailed(message.getId(), false, Duration.ZERO, "Delivery did not complete within " + emailProperties.getOutboxMaxAttempts() + " claims.");
+            LOG.error(String.format("E-mail delivery for user: %s was claimed %d times without completing, giving up.", message.getUserId(), message.getAttempts()));
+            return;
+        }
+        try {
+            emailService.sendMail(message.getUserId(), message.getBody());
+            emailOutboxDao.markSent(message.getId());
+        } catch (final Exception e) {
+            final int attempts = message.getAttempts();
+            final boolean retry = attempts < emailProperties.getOutboxMaxAttempts();
+            final Duration retryDelay = resolveRetryDelay(attempts);
+            emailOutboxDao.markFailed(message.getId(), retry, retryDelay, e.getMessage());
+            if (retry) {
+                LOG.warn(String.format("E-mail delivery attempt %d failed for user: %s, retrying in %s.", attempts, message.getUserId(), retryDelay), e);
+            } else {
+                LOG.error(String.format("E-mail delivery failed for user: %s after %d attempts, giving up.", message.getUserId(), attempts), e);
+            }
+        }
+    }
+
+    private Duration resolveRetryDelay(final int attempts) {
+        final Duration maxRetryBackoff = emailProperties.getOutboxMaxRetryBackoff();
+        Duration retryDelay = emailProperties.getOutboxRetryBackoff();
+        for (int i = 1; i < attempts && retryDelay.compareTo(maxRetryBackoff) < 0; i++) {
+            retryDelay = retryDelay.multipliedBy(2);
+        }
+        return retryDelay.compareTo(maxRetryBackoff) > 0 ? maxRetryBackoff : retryDelay;
+    }
+}
@@ -0,0 +1,8 @@
+package fi.vm.yti.messaging.service.impl;
+
+public enum EmailOutboxStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    FAILED
+}
@@ -12,9 +12,12 @@ import javax.mail.internet.MimeMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import fi.vm.yti.messaging.dto.ErrorModel;
+import fi.vm.yti.messaging.exception.YtiMessagingException;
 import fi.vm.yti.messaging.service.EmailService;
 import fi.vm.yti.messaging.service.UserLookupService;
 import static javax.mail.Message.RecipientType.TO;
@@ -25,14 +28,20 @@ public class EmailServiceImpl implements EmailService {
     private static final Logger LOG = LoggerFactory.getLogger(EmailServiceImpl.class);
     private final UserLookupService userLookupService;
     private final JavaMailSender javaMailSender;
+    private final SmtpConnectionPool smtpConnectionPool;
+    private final NotificationMetrics notificationMetrics;
     private final String adminEmail;
 
     @Inject
     public EmailServiceImpl(final UserLookupService userLookupService,
                             final JavaMailSender javaMailSender,
+                            final SmtpConnectionPool smtpConnectionPool,
+                            final NotificationMetrics notificationMetrics,
                             @Value("${admin.email}") String adminEmail) {
         this.userLookupService = userLookupService;
         this.javaMailSender = javaMailSender;
+        this.smtpConnectionPool = smtpConnectionPool;
+        this.notificationMetrics = notificationMetrics;
         this.adminEmail = adminEmail;
     }
 
@@ -48,22 +57,28 @@ public class EmailServiceImpl implements EmailService {
     public void sendMail(final UUID userId,
                          final String message) {
         final String emailAddress = userLookupService.getUserEmailById(userId);
-        try {
-            if (emailAddress != null && !emailAddress.endsWith("localhost")) {
-                LOG.info("Sending email to: " + userId);
-                LOG.debug("Email message: " + message);
+        if (emailAddress != null && !emailAddress.endsWith("localhost")) {
+            LOG.info("Sending email to: " + userId);
+            LOG.debug("Email message: " + message);
+            final long startNanos = System.nanoTime();
+            boolean sent = false;
+            try {
                 final MimeMessage mail = javaMailSender.createMimeMessage();
                 mail.setRecipient(TO, createAddress(emailAddress));
                 mail.setFrom(createAddress(adminEmail));
                 mail.setSender(createAddress(adminEmail));
                 mail.setSubject("Yhteentoimivuusalustan päivittyneet aineistot");
                 mail.setContent(message, "text/html; charset=UTF-8");
-                javaMailSender.send(mail);
-            } else {
-                LOG.info("Not sending e-mail to a localhost or removed user : " + emailAddress);
+                smtpConnectionPool.send(mail);
+                sent = true;
+            } catch (final MessagingException e) {
+                LOG.error("Email sending failed due to " + e.getMessage());
+                throw new YtiMessagingException(new ErrorModel(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Email sending failed for user: " + userId + " due to " + e.getMessage()));
+            } finally {
+                notificationMetrics.recordSend(startNanos, sent);
             }
-        } catch (final Exception e) {
-            LOG.error("Email sending failed due to " + e.getMessage(), e);
+        } else {
+            LOG.info("Not sending e-mail to a localhost or removed user : " + emailAddress);
         }
     }
 }
@@ -0,0 +1,151 @@
+package fi.vm.yti.messaging.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import fi.vm.yti.messaging.dto.IntegrationResourceDTO;
+
+/**
+ * Streams the resources of several chunked requests to one consumer in chunk order. The first chunk is streamed on the
+ * calling thread while the remaining chunks are fetched on the executor, each into a bounded buffer that the calling
+ * thread drains once the preceding chunks are done.
+ */
+public class IntegrationChunkStream {
+
+    public interface ChunkFetcher {
+
+        void fetchChunk(final int chunkIndex,
+                        final Consumer<IntegrationResourceDTO> consumer);
+    }
+
+    private static final Object END_OF_CHUNK = new Object();
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    private final ChunkFetcher chunkFetcher;
+    private final Executor fetchExecutor;
+    private final int chunkCount;
+    private final int bufferSize;
+
+    public IntegrationChunkStream(final ChunkFetcher chunkFetcher,
+                                  final Executor fetchExecutor,
+                                  final int chunkCount,
+                                  final int bufferSize) {
+        this.chunkFetcher = chunkFetcher;
+        this.fetchExecutor = fetchExecutor;
+        this.chunkCount = chunkCount;
+        this.bufferSize = bufferSize;
+    }
+
+    public int forEach(final Consumer<IntegrationResourceDTO> consumer) {
+        final List<ChunkBuffer> buffers = new ArrayList<>();
+        try {
+            for (int i = 1; i < chunkCount; i++) {
+                final ChunkBuffer buffer = new ChunkBuffer(bufferSize);
+                final int chunkIndex = i;
+                buffers.add(buffer);
+                fetchExecutor.execute(() -> buffer.fill(chunkFetcher, chunkIndex));
+            }
+            final CountingConsumer countingConsumer = new CountingConsumer(consumer);
+            if (chunkCount > 0) {
+                chunkFetcher.fetchChunk(0, countingConsumer);
+            }
+            for (final ChunkBuffer buffer : buffers) {
+                buffer.drainTo(countingConsumer);
+            }
+            return countingConsumer.count;
+        } finally {
+            buffers.forEach(ChunkBuffer::cancel);
+        }
+    }
+
+    private static class CountingConsumer implements Consumer<IntegrationResourceDTO> {
+
+        private final Consumer<IntegrationResourceDTO> consumer;
+        private int count;
+
+        private CountingConsumer(final Consumer<IntegrationResourceDTO> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void accept(final IntegrationResourceDTO resource) {
+            consumer.accept(resource);
+            count++;
+        }
+    }
+
+    private static class ChunkBuffer {
+
+        private final BlockingQueue<Object> queue;
+        private volatile boolean cancelled;
+
+        private ChunkBuffer(final int bufferSize) {
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        private void fill(final ChunkFetcher chunkFetcher,
+                          final int chunkIndex) {
+            if (cancelled) {
+                return;
+            }
+            Object last = END_OF_CHUNK;
+            try {
+                chunkFetcher.fetchChunk(chunkIndex, this::put);
+            } catch (final RuntimeException | Error e) {
+                last = e;
+            }
+            put(last);
+        }
+
+        /**
+         * Blocks while the buffer is full. Once the stream is cancelled items are dropped instead, so that a fetch in
+         * progress runs to its end without failing and counting against the circuit breaker.
+         */
+        private void put(final Object item) {
+            try {
+                while (!cancelled && !queue.offer(item, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    // Wait for the consumer to catch up.
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelled = true;
+            }
+        }
+
+        private void drainTo(final Consumer<IntegrationResourceDTO> consumer) {
+            while (true) {
+                final Object item = take();
+                if (item == END_OF_CHUNK) {
+                    return;
+                }
+                if (item instanceof RuntimeException) {
+                    throw (RuntimeException) item;
+                }
+                if (item instanceof Error) {
+                    throw (Error) item;
+                }
+                consumer.accept((IntegrationResourceDTO) item);
+            }
+        }
+
+        private Object take() {
+            try {
+                return queue.take();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while waiting for a container chunk.");
+            }
+        }
+
+        private void cancel() {
+            cancelled = true;
+            queue.clear();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package fi.vm.yti.messaging.service.impl;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.springframework.web.client.HttpClientErrorException;
+
+import fi.vm.yti.messaging.exception.IntegrationUnavailableException;
+
+public class IntegrationCircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final Semaphore bulkhead;
+    private final long bulkheadWaitNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicLong rejectedCalls;
+    private State state;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    public IntegrationCircuitBreaker(final String name,
+                                     final int failureThreshold,
+                                     final long openNanos,
+                                     final int maxConcurrentCalls,
+                                     final long bulkheadWaitNanos) {
+        this(name, failureThreshold, openNanos, maxConcurrentCalls, bulkheadWaitNanos, System::nanoTime);
+    }
+
+    public IntegrationCircuitBreaker(final String name,
+                                     final int failureThreshold,
+                                     final long openNanos,
+                                     final int maxConcurrentCalls,
+                                     final long bulkheadWaitNanos,
+                                     final LongSupplier nanoClock) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openNanos;
+        this.bulkhead = new Semaphore(maxConcurrentCalls, true);
+        this.bulkheadWaitNanos = bulkheadWaitNanos;
+        this.nanoClock = nanoClock;
+        this.rejectedCalls = new AtomicLong();
+        this.state = State.CLOSED;
+    }
+
+    public <T> T call(final Supplier<T> call) {
+        final boolean probe = acquirePermission();
+        boolean acquired = false;
+        try {
+            acquired = bulkhead.tryAcquire(bulkheadWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!acquired) {
+            if (probe) {
+                releaseProbe();
+            }
+            throw reject("too many concurrent calls", true);
+        }
+        try {
+            final T result = call.get();
+            onSuccess(probe);
+            return result;
+        } catch (final HttpClientErrorException e) {
+            onSuccess(probe);
+            throw e;
+        } catch (final RuntimeException e) {
+            onFailure(probe);
+            throw e;
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public long getRejectedCalls() {
+        return rejectedCalls.get();
+    }
+
+    private synchronized boolean acquirePermission() {
+        if (state == State.OPEN) {
+            if (nanoClock.getAsLong() - openedAt < openNanos) {
+                throw reject("circuit is open", false);
+            }
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probeInFlight) {
+                throw reject("circuit is half-open and a probe call is in flight", false);
+            }
+            probeInFlight = true;
+            return true;
+        }
+        return false;
+    }
+
+    private synchronized void releaseProbe() {
+        probeInFlight = false;
+    }
+
+    private synchronized void onSuccess(final boolean probe) {
+        if (probe && state == State.HALF_OPEN) {
+            state = State.CLOSED;
+            probeInFlight = false;
+        }
+        if (state == State.CLOSED) {
+            consecutiveFailures = 0;
+        }
+    }
+
+    private synchronized void onFailure(final boolean probe) {
+        if (probe && state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED && ++consecutiveFailures >= failureThreshold) {
+            open();
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = nanoClock.getAsLong();
+        probeInFlight = false;
+    }
+
+    private IntegrationUnavailableException reject(final String reason,
+                                                   final boolean retryable) {
+        rejectedCalls.incrementAndGet();
+        return new IntegrationUnavailableException("Integration API for " + name + " is unavailable: " + reason, retryable);
+    }
+}
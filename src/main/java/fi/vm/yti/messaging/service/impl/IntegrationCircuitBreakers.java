@@ -0,0 +1,49 @@
+package fi.vm.yti.messaging.service.impl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import fi.vm.yti.messaging.configuration.IntegrationClientProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Component
+public class IntegrationCircuitBreakers {
+
+    private final IntegrationClientProperties integrationClientProperties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, IntegrationCircuitBreaker> circuitBreakers;
+
+    public IntegrationCircuitBreakers(final IntegrationClientProperties integrationClientProperties,
+                                      final MeterRegistry meterRegistry) {
+        this.integrationClientProperties = integrationClientProperties;
+        this.meterRegistry = meterRegistry;
+        this.circuitBreakers = new ConcurrentHashMap<>();
+    }
+
+    <T> T call(final String applicationIdentifier,
+               final Supplier<T> call) {
+        return circuitBreakers.computeIfAbsent(applicationIdentifier, this::createCircuitBreaker).call(call);
+    }
+
+    private IntegrationCircuitBreaker createCircuitBreaker(final String applicationIdentifier) {
+        final IntegrationCircuitBreaker circuitBreaker = new IntegrationCircuitBreaker(applicationIdentifier,
+            integrationClientProperties.getCircuitFailureThreshold(),
+            integrationClientProperties.getCircuitOpenDuration().toNanos(),
+            integrationClientProperties.getBulkheadMaxConcurrentCalls(),
+            integrationClientProperties.getBulkheadMaxWait().toNanos());
+        Gauge.builder("integration.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+            .description("Integration API circuit state: 0 closed, 1 open, 2 half-open")
+            .tag("application", applicationIdentifier)
+            .register(meterRegistry);
+        FunctionCounter.builder("integration.circuit.rejected", circuitBreaker, IntegrationCircuitBreaker::getRejectedCalls)
+            .description("Integration API calls rejected by an open circuit or a full bulkhead")
+            .tag("application", applicationIdentifier)
+            .register(meterRegistry);
+        return circuitBreaker;
+    }
+}
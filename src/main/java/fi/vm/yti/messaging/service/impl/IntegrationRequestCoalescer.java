@@ -0,0 +1,75 @@
+package fi.vm.yti.messaging.service.impl;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Component
+public class IntegrationRequestCoalescer {
+
+    private final Map<String, CompletableFuture<Object>> inFlight;
+    private final Counter issued;
+    private final Counter coalesced;
+
+    public IntegrationRequestCoalescer(final MeterRegistry meterRegistry) {
+        this.inFlight = new ConcurrentHashMap<>();
+        this.issued = createCounter(meterRegistry, "issued", "Integration requests issued upstream");
+        this.coalesced = createCounter(meterRegistry, "coalesced", "Integration requests that joined an identical request already in flight");
+    }
+
+    public <T> T execute(final String key,
+                         final Supplier<T> request) {
+        return execute(key, request, Function.identity());
+    }
+
+    /**
+     * Callers that join a request in flight get {@code copier} applied to the shared result, so a mutable result is
+     * never handed to more than one caller.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(final String key,
+                         final Supplier<T> request,
+                         final Function<T, T> copier) {
+        final CompletableFuture<Object> call = new CompletableFuture<>();
+        final CompletableFuture<Object> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            coalesced.increment();
+            try {
+                return copier.apply((T) existing.join());
+            } catch (final CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+        issued.increment();
+        try {
+            final T result = request.get();
+            call.complete(result);
+            return result;
+        } catch (final RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    private Counter createCounter(final MeterRegistry meterRegistry,
+                                  final String result,
+                                  final String description) {
+        return Counter.builder("integration.requests")
+            .description(description)
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,154 @@
+package fi.vm.yti.messaging.service.impl;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import fi.vm.yti.messaging.api.Meta;
+import fi.vm.yti.messaging.dto.IntegrationResourceDTO;
+import fi.vm.yti.messaging.dto.IntegrationResponseDTO;
+
+public class IntegrationResourcePageIterator implements Iterator<IntegrationResourceDTO> {
+
+    public interface PageFetcher {
+
+        IntegrationResponseDTO fetchPage(final int from,
+                                         final int pageSize);
+    }
+
+    private final PageFetcher pageFetcher;
+    private final Executor prefetchExecutor;
+    private final int minPageSize;
+    private final long targetPageNanos;
+    private int maxPageSize;
+    private int confirmedPageSize;
+    private int pageSize;
+    private int fetchedPages;
+    private Iterator<IntegrationResourceDTO> currentPage;
+    private CompletableFuture<FetchedPage> nextPage;
+
+    public IntegrationResourcePageIterator(final PageFetcher pageFetcher,
+                                    final Executor prefetchExecutor,
+                                    final int initialPageSize,
+                                    final int maxPageSize,
+                                    final long targetPageNanos) {
+        this.pageFetcher = pageFetcher;
+        this.prefetchExecutor = prefetchExecutor;
+        this.minPageSize = initialPageSize;
+        this.maxPageSize = Math.max(initialPageSize, maxPageSize);
+        this.targetPageNanos = targetPageNanos;
+        this.confirmedPageSize = initialPageSize;
+        this.pageSize = initialPageSize;
+        this.currentPage = Collections.emptyIterator();
+        this.nextPage = CompletableFuture.completedFuture(fetchPage(0, initialPageSize));
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!currentPage.hasNext()) {
+            if (nextPage == null) {
+                return false;
+            }
+            final FetchedPage page = joinPage(nextPage);
+            nextPage = null;
+            fetchedPages++;
+            final boolean morePages = hasMorePages(page);
+            adaptPageSize(page);
+            if (morePages) {
+                final int nextFrom = page.from + page.results.size();
+                final int nextPageSize = pageSize;
+                nextPage = CompletableFuture.supplyAsync(() -> fetchPage(nextFrom, nextPageSize), prefetchExecutor);
+            }
+            currentPage = page.results.iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public IntegrationResourceDTO next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return currentPage.next();
+    }
+
+    public int getFetchedPages() {
+        return fetchedPages;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    private FetchedPage fetchPage(final int from,
+                                  final int requestedPageSize) {
+        final long start = System.nanoTime();
+        final IntegrationResponseDTO response = pageFetcher.fetchPage(from, requestedPageSize);
+        return new FetchedPage(from, requestedPageSize, response, System.nanoTime() - start);
+    }
+
+    private boolean hasMorePages(final FetchedPage page) {
+        if (page.results.isEmpty()) {
+            return false;
+        }
+        final Integer totalResults = page.meta != null ? page.meta.getTotalResults() : null;
+        if (totalResults != null) {
+            return page.from + page.results.size() < totalResults;
+        }
+        final int returnedPageSize = page.results.size();
+        if (returnedPageSize >= page.requestedPageSize) {
+            confirmedPageSize = Math.max(confirmedPageSize, returnedPageSize);
+            return true;
+        }
+        if (returnedPageSize < confirmedPageSize) {
+            return false;
+        }
+        maxPageSize = returnedPageSize;
+        confirmedPageSize = returnedPageSize;
+        return true;
+    }
+
+    private void adaptPageSize(final FetchedPage page) {
+        if (page.elapsedNanos < targetPageNanos / 2) {
+            pageSize = pageSize * 2;
+        } else if (page.elapsedNanos > targetPageNanos) {
+            pageSize = Math.max(minPageSize, pageSize / 2);
+        }
+        pageSize = Math.min(maxPageSize, pageSize);
+    }
+
+    private FetchedPage joinPage(final CompletableFuture<FetchedPage> page) {
+        try {
+            return page.join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static class FetchedPage {
+
+        private final int from;
+        private final int requestedPageSize;
+        private final Meta meta;
+        private final List<IntegrationResourceDTO> results;
+        private final long elapsedNanos;
+
+        FetchedPage(final int from,
+                    final int requestedPageSize,
+                    final IntegrationResponseDTO response,
+                    final long elapsedNanos) {
+            this.from = from;
+            this.requestedPageSize = requestedPageSize;
+            this.meta = response.getMeta();
+            this.results = response.getResults() != null ? response.getResults() : Collections.emptyList();
+            this.elapsedNanos = elapsedNanos;
+        }
+    }
+}
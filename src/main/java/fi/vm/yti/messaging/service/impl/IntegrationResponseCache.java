@@ -0,0 +1,121 @@
+package fi.vm.yti.messaging.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import fi.vm.yti.messaging.configuration.IntegrationClientProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+@Component
+public class IntegrationResponseCache {
+
+    private final IntegrationClientProperties integrationClientProperties;
+    private final Map<String, CachedResponse> responses;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter changed;
+    private long cachedBytes;
+
+    public IntegrationResponseCache(final IntegrationClientProperties integrationClientProperties,
+                                    final MeterRegistry meterRegistry) {
+        this.integrationClientProperties = integrationClientProperties;
+        this.responses = new LinkedHashMap<>(16, 0.75f, true);
+        this.hits = createCounter(meterRegistry, "hit", "Integration responses revalidated as unchanged and served from the cache");
+        this.misses = createCounter(meterRegistry, "miss", "Integration requests without a cached response");
+        this.changed = createCounter(meterRegistry, "changed", "Cached integration responses that were revalidated as changed");
+        meterRegistry.gaugeMapSize("integration.cache.entries", Tags.empty(), responses);
+        meterRegistry.gauge("integration.cache.bytes", this, IntegrationResponseCache::getCachedBytes);
+    }
+
+    String createKey(final String requestUrl,
+                     final String requestBody) {
+        return requestUrl + "#" + DigestUtils.md5DigestAsHex(requestBody.getBytes(StandardCharsets.UTF_8));
+    }
+
+    synchronized CachedResponse find(final String key) {
+        final CachedResponse cachedResponse = responses.get(key);
+        if (cachedResponse == null) {
+            misses.increment();
+        }
+        return cachedResponse;
+    }
+
+    boolean isCacheable(final long contentLength) {
+        return integrationClientProperties.getResponseCacheMaxEntries() > 0 && contentLength <= Math.min(integrationClientProperties.getResponseCacheMaxBodyBytes(), integrationClientProperties.getResponseCacheMaxTotalBytes());
+    }
+
+    synchronized void store(final String key,
+                            final String eTag,
+                            final String lastModified,
+                            final byte[] body) {
+        if (!isCacheable(body.length)) {
+            return;
+        }
+        final CachedResponse replaced = responses.put(key, new CachedResponse(eTag, lastModified, body));
+        cachedBytes += body.length - (replaced != null ? replaced.getBody().length : 0);
+        final Iterator<CachedResponse> eldest = responses.values().iterator();
+        while (eldest.hasNext() && (responses.size() > integrationClientProperties.getResponseCacheMaxEntries() || cachedBytes > integrationClientProperties.getResponseCacheMaxTotalBytes())) {
+            cachedBytes -= eldest.next().getBody().length;
+            eldest.remove();
+        }
+    }
+
+    synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    void unchanged() {
+        hits.increment();
+    }
+
+    void changed() {
+        changed.increment();
+    }
+
+    private Counter createCounter(final MeterRegistry meterRegistry,
+                                  final String result,
+                                  final String description) {
+        return Counter.builder("integration.cache.requests")
+            .description(description)
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    static class CachedResponse {
+
+        private final String eTag;
+        private final String lastModified;
+        private final byte[] body;
+
+        CachedResponse(final String eTag,
+                       final String lastModified,
+                       final byte[] body) {
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+            this.body = body;
+        }
+
+        String getETag() {
+            return eTag;
+        }
+
+        String getLastModified() {
+            return lastModified;
+        }
+
+        byte[] getBody() {
+            return body;
+        }
+
+        boolean isConditional() {
+            return eTag != null || lastModified != null;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package fi.vm.yti.messaging.service.impl;
+
+enum IntegrationResponseCaching {
+    NONE,
+    REVALIDATE,
+    STALE_ON_FAILURE
+}
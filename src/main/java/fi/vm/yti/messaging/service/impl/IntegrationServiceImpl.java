@@ -1,39 +1,66 @@
 package fi.vm.yti.messaging.service.impl;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
+import javax.annotation.PreDestroy;
 import javax.ws.rs.core.MediaType;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.StreamUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
 
+import fi.vm.yti.messaging.api.Meta;
+
 import fi.vm.yti.messaging.configuration.CodelistProperties;
 import fi.vm.yti.messaging.configuration.CommentsProperties;
 import fi.vm.yti.messaging.configuration.CustomObjectMapper;
 import fi.vm.yti.messaging.configuration.DataModelProperties;
+import fi.vm.yti.messaging.configuration.IntegrationClientProperties;
 import fi.vm.yti.messaging.configuration.TerminologyProperties;
+import fi.vm.yti.messaging.dto.ChangeWindowDTO;
 import fi.vm.yti.messaging.dto.ErrorModel;
+import fi.vm.yti.messaging.dto.IntegrationResourceDTO;
 import fi.vm.yti.messaging.dto.IntegrationResourceRequestDTO;
 import fi.vm.yti.messaging.dto.IntegrationResponseDTO;
+import fi.vm.yti.messaging.exception.IntegrationUnavailableException;
 import fi.vm.yti.messaging.exception.NotFoundException;
 import fi.vm.yti.messaging.exception.YtiMessagingException;
 import fi.vm.yti.messaging.service.IntegrationService;
@@ -54,23 +81,87 @@ public class IntegrationServiceImpl implements IntegrationService {
     private final DataModelProperties dataModelProperties;
     private final TerminologyProperties terminologyProperties;
     private final CommentsProperties commentsProperties;
+    private final IntegrationClientProperties integrationClientProperties;
     private final RestTemplate restTemplate;
+    private final IntegrationResponseCache integrationResponseCache;
+    private final IntegrationCircuitBreakers integrationCircuitBreakers;
+    private final IntegrationRequestCoalescer integrationRequestCoalescer;
+    private final ObjectMapper responseMapper;
+    private final ObjectReader resourceReader;
+    private final ObjectReader metaReader;
+    private final ObjectWriter requestWriter;
+    private final ExecutorService fetchExecutor;
 
     public IntegrationServiceImpl(final CodelistProperties codelistProperties,
                                   final DataModelProperties dataModelProperties,
                                   final TerminologyProperties terminologyProperties,
                                   final CommentsProperties commentsProperties,
-                                  final RestTemplate restTemplate) {
+                                  final IntegrationClientProperties integrationClientProperties,
+                                  final RestTemplate restTemplate,
+                                  final IntegrationResponseCache integrationResponseCache,
+                                  final IntegrationCircuitBreakers integrationCircuitBreakers,
+                                  final IntegrationRequestCoalescer integrationRequestCoalescer) {
         this.codelistProperties = codelistProperties;
         this.dataModelProperties = dataModelProperties;
         this.terminologyProperties = terminologyProperties;
         this.commentsProperties = commentsProperties;
+        this.integrationClientProperties = integrationClientProperties;
         this.restTemplate = restTemplate;
+        this.integrationResponseCache = integrationResponseCache;
+        this.integrationCircuitBreakers = integrationCircuitBreakers;
+        this.integrationRequestCoalescer = integrationRequestCoalescer;
+        this.fetchExecutor = Executors.newFixedThreadPool(integrationClientProperties.getFetchConcurrency(), new CustomizableThreadFactory("integration-fetch-"));
+        this.responseMapper = new ObjectMapper();
+        this.responseMapper.setFilterProvider(new SimpleFilterProvider().setFailOnUnknownId(false));
+        this.resourceReader = responseMapper.readerFor(IntegrationResourceDTO.class);
+        this.metaReader = responseMapper.readerFor(Meta.class);
+        this.requestWriter = new CustomObjectMapper().writerFor(IntegrationResourceRequestDTO.class);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fetchExecutor.shutdownNow();
+    }
+
+    private static IntegrationResponseDTO copyIntegrationResponse(final IntegrationResponseDTO response) {
+        if (response == null) {
+            return null;
+        }
+        final IntegrationResponseDTO copy = new IntegrationResponseDTO();
+        copy.setMeta(response.getMeta());
+        if (response.getResults() != null) {
+            final List<IntegrationResourceDTO> results = new ArrayList<>(response.getResults().size());
+            for (final IntegrationResourceDTO resource : response.getResults()) {
+                results.add(copyIntegrationResource(resource));
+            }
+            copy.setResults(results);
+        }
+        return copy;
+    }
+
+    private static IntegrationResourceDTO copyIntegrationResource(final IntegrationResourceDTO resource) {
+        final IntegrationResourceDTO copy = new IntegrationResourceDTO();
+        copy.setUri(resource.getUri());
+        copy.setType(resource.getType());
+        copy.setPrefLabel(resource.getPrefLabel() != null ? new HashMap<>(resource.getPrefLabel()) : null);
+        copy.setDescription(resource.getDescription() != null ? new HashMap<>(resource.getDescription()) : null);
+        copy.setLocalName(resource.getLocalName());
+        copy.setStatus(resource.getStatus());
+        copy.setCreated(resource.getCreated());
+        copy.setModified(resource.getModified());
+        copy.setStatusModified(resource.getStatusModified());
+        copy.setContentModified(resource.getContentModified());
+        copy.setReasonCodes(resource.getReasonCodes() != null ? resource.getReasonCodes().clone() : null);
+        copy.setSubResourceResponse(copyIntegrationResponse(resource.getSubResourceResponse()));
+        return copy;
     }
 
     public IntegrationResponseDTO getIntegrationContainers(final String applicationIdentifier,
                                                            final Set<String> containerUris) {
-        return getIntegrationContainers(applicationIdentifier, containerUris, false, false);
+        final String requestUrl = resolveIntegrationContainersRequestUrl(applicationIdentifier, false);
+        final String requestKey = applicationIdentifier + "#" + (containerUris != null ? new TreeSet<>(containerUris) : null);
+        return integrationRequestCoalescer.execute(requestKey, () -> fetchIntegrationContainers(applicationIdentifier, requestUrl, containerUris, chunk -> createContainerRequestBody(chunk, false, false), IntegrationResponseCaching.STALE_ON_FAILURE),
+            IntegrationServiceImpl::copyIntegrationResponse);
     }
 
     public IntegrationResponseDTO getIntegrationContainers(final String applicationIdentifier,
@@ -78,17 +169,49 @@ public class IntegrationServiceImpl implements IntegrationService {
                                                            final boolean fetchDateRangeChanges,
                                                            final boolean getLatest) {
         final String requestUrl = resolveIntegrationContainersRequestUrl(applicationIdentifier, fetchDateRangeChanges);
+        return fetchIntegrationContainers(applicationIdentifier, requestUrl, containerUris, chunk -> createContainerRequestBody(chunk, fetchDateRangeChanges, getLatest), IntegrationResponseCaching.REVALIDATE);
+    }
+
+    public IntegrationResponseDTO getIntegrationContainers(final String applicationIdentifier,
+                                                           final Set<String> containerUris,
+                                                           final ChangeWindowDTO changeWindow) {
+        final String requestUrl = resolveIntegrationContainersRequestUrl(applicationIdentifier, true);
+        return fetchIntegrationContainers(applicationIdentifier, requestUrl, containerUris, chunk -> createContainerRequestBody(chunk, changeWindow), IntegrationResponseCaching.NONE);
+    }
+
+    public Meta streamIntegrationContainers(final String applicationIdentifier,
+                                            final Set<String> containerUris,
+                                            final ChangeWindowDTO changeWindow,
+                                            final Consumer<IntegrationResourceDTO> consumer) {
+        final String requestUrl = resolveIntegrationContainersRequestUrl(applicationIdentifier, true);
+        LOG.info("Streaming integration containers from: " + requestUrl + " for " + changeWindow);
+        try {
+            return fetchContainerChunks(applicationIdentifier, requestUrl, containerUris, chunk -> createContainerRequestBody(chunk, changeWindow), IntegrationResponseCaching.NONE, consumer);
+        } catch (final IntegrationUnavailableException e) {
+            LOG.warn(e.getMessage());
+            throw e;
+        } catch (final Exception e) {
+            LOG.error("Fetching integration containers failed for application: " + applicationIdentifier, e);
+            throw new YtiMessagingException(new ErrorModel(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Failed to fetch integration containers for application: " + applicationIdentifier));
+        }
+    }
+
+    private IntegrationResponseDTO fetchIntegrationContainers(final String applicationIdentifier,
+                                                              final String requestUrl,
+                                                              final Set<String> containerUris,
+                                                              final Function<Set<String>, String> requestBodyFactory,
+                                                              final IntegrationResponseCaching caching) {
         LOG.info("Fetching integration containers from: " + requestUrl);
-        final String requestBody = createContainerRequestBody(containerUris, fetchDateRangeChanges, getLatest);
-        LOG.info("Fetching integration containers body: " + requestBody);
-        final HttpEntity requestEntity = new HttpEntity<>(requestBody, createRequestHeaders());
         try {
-            final ResponseEntity response = restTemplate.exchange(requestUrl, HttpMethod.POST, requestEntity, String.class);
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                return parseIntegrationResponse(response);
-            } else {
-                throw new NotFoundException();
-            }
+            final List<IntegrationResourceDTO> results = new ArrayList<>();
+            final IntegrationResponseDTO integrationResponse = new IntegrationResponseDTO();
+            integrationResponse.setMeta(fetchContainerChunks(applicationIdentifier, requestUrl, containerUris, requestBodyFactory, caching, results::add));
+            Collections.sort(results);
+            integrationResponse.setResults(results);
+            return integrationResponse;
+        } catch (final IntegrationUnavailableException e) {
+            LOG.warn(e.getMessage());
+            throw e;
         } catch (final Exception e) {
             LOG.error("Fetching integration containers failed for application: " + applicationIdentifier, e);
             throw new YtiMessagingException(new ErrorModel(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Failed to fetch integration containers for application: " + applicationIdentifier));
@@ -99,42 +222,228 @@ public class IntegrationServiceImpl implements IntegrationService {
                                                           final String containerUri,
                                                           final boolean fetchDateRangeChanges,
                                                           final boolean getLatest) {
+        final List<IntegrationResourceDTO> results = new ArrayList<>();
+        iterateIntegrationResources(applicationIdentifier, containerUri, fetchDateRangeChanges, getLatest).forEachRemaining(results::add);
+        Collections.sort(results);
+        final Meta meta = new Meta();
+        meta.setResultCount(results.size());
+        meta.setTotalResults(results.size());
+        final IntegrationResponseDTO integrationResponse = new IntegrationResponseDTO();
+        integrationResponse.setMeta(meta);
+        integrationResponse.setResults(results);
+        return integrationResponse;
+    }
+
+    public Iterator<IntegrationResourceDTO> iterateIntegrationResources(final String applicationIdentifier,
+                                                                        final String containerUri,
+                                                                        final boolean fetchDateRangeChanges,
+                                                                        final boolean getLatest) {
         final String requestUrl = resolveIntegrationResourcesRequestUrl(applicationIdentifier);
         LOG.debug("Fetching integration resources from: " + requestUrl);
-        final String requestBody = createResourcesRequestBody(applicationIdentifier, containerUri, fetchDateRangeChanges, getLatest);
-        LOG.debug("Fetching integration resources body: " + requestBody);
-        final HttpEntity requestEntity = new HttpEntity<>(requestBody, createRequestHeaders());
+        final IntegrationResourceRequestDTO integrationResourceRequest = createResourcesRequest(containerUri, fetchDateRangeChanges, getLatest);
+        return new IntegrationResourcePageIterator((from, pageSize) -> {
+            final String requestBody;
+            synchronized (integrationResourceRequest) {
+                integrationResourceRequest.setPageFrom(from);
+                integrationResourceRequest.setPageSize(pageSize);
+                requestBody = writeRequestBody(integrationResourceRequest);
+            }
+            LOG.debug("Fetching integration resources body: " + requestBody);
+            try {
+                return collectIntegrationResponse(applicationIdentifier, requestUrl, requestBody, IntegrationResponseCaching.REVALIDATE);
+            } catch (final IntegrationUnavailableException e) {
+                LOG.warn(e.getMessage());
+                throw e;
+            } catch (final Exception e) {
+                LOG.error("Fetching integration resources failed for application: " + applicationIdentifier, e);
+                throw new YtiMessagingException(new ErrorModel(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Failed to fetch integration resources for application: " + applicationIdentifier));
+            }
+        }, fetchExecutor, RESOURCES_PAGE_SIZE, integrationClientProperties.getResourcesMaxPageSize(), integrationClientProperties.getResourcesPageTargetLatency().toNanos());
+    }
+
+    private Meta fetchContainerChunks(final String applicationIdentifier,
+                                      final String requestUrl,
+                                      final Set<String> containerUris,
+                                      final Function<Set<String>, String> requestBodyFactory,
+                                      final IntegrationResponseCaching caching,
+                                      final Consumer<IntegrationResourceDTO> consumer) {
+        final List<Set<String>> chunks = chunkContainerUris(containerUris);
+        if (chunks.size() > 1) {
+            LOG.info(String.format("Fetching %d container URIs for %s in %d chunks.", containerUris.size(), applicationIdentifier, chunks.size()));
+        }
+        final IntegrationChunkStream chunkStream = new IntegrationChunkStream((chunkIndex, chunkConsumer) ->
+            fetchContainerChunk(applicationIdentifier, requestUrl, requestBodyFactory.apply(chunks.get(chunkIndex)), caching, chunkIndex + 1, chunks.size(), chunkConsumer),
+            fetchExecutor, chunks.size(), integrationClientProperties.getChunkBufferSize());
+        final int resultCount = chunkStream.forEach(consumer);
+        final Meta meta = new Meta();
+        meta.setResultCount(resultCount);
+        meta.setTotalResults(resultCount);
+        return meta;
+    }
+
+    private List<Set<String>> chunkContainerUris(final Set<String> containerUris) {
+        if (containerUris == null || containerUris.isEmpty()) {
+            return Collections.singletonList(containerUris);
+        }
+        final List<String> sortedUris = new ArrayList<>(containerUris);
+        Collections.sort(sortedUris);
+        final int chunkSize = integrationClientProperties.getContainerChunkSize();
+        final List<Set<String>> chunks = new ArrayList<>();
+        for (int from = 0; from < sortedUris.size(); from += chunkSize) {
+            chunks.add(new LinkedHashSet<>(sortedUris.subList(from, Math.min(from + chunkSize, sortedUris.size()))));
+        }
+        return chunks;
+    }
+
+    /**
+     * Retries a failed chunk only while none of its resources have been passed on, as a retry after that would hand the
+     * consumer the same resources twice.
+     */
+    private void fetchContainerChunk(final String applicationIdentifier,
+                                     final String requestUrl,
+                                     final String requestBody,
+                                     final IntegrationResponseCaching caching,
+                                     final int chunkNumber,
+                                     final int chunkCount,
+                                     final Consumer<IntegrationResourceDTO> consumer) {
+        LOG.debug("Fetching integration containers body: " + requestBody);
+        final int maxAttempts = integrationClientProperties.getChunkRetries() + 1;
+        final AtomicBoolean delivered = new AtomicBoolean();
+        final Consumer<IntegrationResourceDTO> deliveringConsumer = resource -> {
+            delivered.set(true);
+            consumer.accept(resource);
+        };
+        for (int attempt = 1; ; attempt++) {
+            try {
+                streamIntegrationResponse(applicationIdentifier, requestUrl, requestBody, caching, deliveringConsumer);
+                return;
+            } catch (final RuntimeException e) {
+                if (delivered.get() || attempt >= maxAttempts || (e instanceof IntegrationUnavailableException && !((IntegrationUnavailableException) e).isRetryable())) {
+                    throw e;
+                }
+                LOG.warn(String.format("Fetching container chunk %d/%d for %s failed on attempt %d/%d, retrying: %s", chunkNumber, chunkCount, applicationIdentifier, attempt, maxAttempts, e.getMessage()));
+                try {
+                    Thread.sleep(integrationClientProperties.getChunkRetryDelay().toMillis() * attempt);
+                } catch (final InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private IntegrationResponseDTO collectIntegrationResponse(final String applicationIdentifier,
+                                                              final String requestUrl,
+                                                              final String requestBody,
+                                                              final IntegrationResponseCaching caching) {
+        final List<IntegrationResourceDTO> results = new ArrayList<>();
+        final IntegrationResponseDTO integrationResponse = new IntegrationResponseDTO();
+        integrationResponse.setMeta(streamIntegrationResponse(applicationIdentifier, requestUrl, requestBody, caching, results::add));
+        integrationResponse.setResults(results);
+        return integrationResponse;
+    }
+
+    private Meta streamIntegrationResponse(final String applicationIdentifier,
+                                           final String requestUrl,
+                                           final String requestBody,
+                                           final IntegrationResponseCaching caching,
+                                           final Consumer<IntegrationResourceDTO> consumer) {
+        final HttpHeaders requestHeaders = createRequestHeaders();
+        final String cacheKey = caching != IntegrationResponseCaching.NONE ? integrationResponseCache.createKey(requestUrl, requestBody) : null;
+        final IntegrationResponseCache.CachedResponse cachedResponse = cacheKey != null ? integrationResponseCache.find(cacheKey) : null;
+        if (cachedResponse != null) {
+            if (cachedResponse.getETag() != null) {
+                requestHeaders.setIfNoneMatch(cachedResponse.getETag());
+            }
+            if (cachedResponse.getLastModified() != null) {
+                requestHeaders.set(HttpHeaders.IF_MODIFIED_SINCE, cachedResponse.getLastModified());
+            }
+        }
         try {
-            final ResponseEntity response = restTemplate.exchange(requestUrl, HttpMethod.POST, requestEntity, String.class);
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                return parseIntegrationResponse(response);
-            } else {
+            return integrationCircuitBreakers.call(applicationIdentifier, () -> exchangeIntegrationResponse(requestUrl, requestBody, requestHeaders, cacheKey, cachedResponse, caching, consumer));
+        } catch (final IntegrationUnavailableException e) {
+            if (caching != IntegrationResponseCaching.STALE_ON_FAILURE || cachedResponse == null) {
+                throw e;
+            }
+            LOG.warn(e.getMessage() + ", serving a stale cached response for: " + requestUrl);
+            try {
+                return parseIntegrationResponse(new ByteArrayInputStream(cachedResponse.getBody()), consumer);
+            } catch (final IOException ioe) {
+                throw new UncheckedIOException(ioe);
+            }
+        }
+    }
+
+    private Meta exchangeIntegrationResponse(final String requestUrl,
+                                             final String requestBody,
+                                             final HttpHeaders requestHeaders,
+                                             final String cacheKey,
+                                             final IntegrationResponseCache.CachedResponse cachedResponse,
+                                             final IntegrationResponseCaching caching,
+                                             final Consumer<IntegrationResourceDTO> consumer) {
+        return restTemplate.execute(requestUrl, HttpMethod.POST, request -> {
+            request.getHeaders().addAll(requestHeaders);
+            request.getBody().write(requestBody.getBytes(StandardCharsets.UTF_8));
+        }, response -> {
+            if (response.getStatusCode() == HttpStatus.NOT_MODIFIED && cachedResponse != null) {
+                integrationResponseCache.unchanged();
+                return parseIntegrationResponse(new ByteArrayInputStream(cachedResponse.getBody()), consumer);
+            }
+            if (response.getStatusCode() != HttpStatus.OK) {
                 throw new NotFoundException();
             }
-        } catch (final Exception e) {
-            LOG.error("Fetching integration resources failed for application: " + applicationIdentifier, e);
-            throw new YtiMessagingException(new ErrorModel(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Failed to fetch integration resources for application: " + applicationIdentifier));
+            if (cachedResponse != null && cachedResponse.isConditional()) {
+                integrationResponseCache.changed();
+            }
+            final String eTag = response.getHeaders().getETag();
+            final String lastModified = response.getHeaders().getFirst(HttpHeaders.LAST_MODIFIED);
+            if (caching == IntegrationResponseCaching.NONE || (eTag == null && lastModified == null && caching != IntegrationResponseCaching.STALE_ON_FAILURE) || !integrationResponseCache.isCacheable(response.getHeaders().getContentLength())) {
+                return parseIntegrationResponse(response.getBody(), consumer);
+            }
+            final InputStream body = response.getBody();
+            final int maxBodyBytes = integrationClientProperties.getResponseCacheMaxBodyBytes();
+            final byte[] responseBody = readAtMost(body, maxBodyBytes + 1);
+            if (responseBody.length > maxBodyBytes) {
+                return parseIntegrationResponse(new SequenceInputStream(new ByteArrayInputStream(responseBody), body), consumer);
+            }
+            integrationResponseCache.store(cacheKey, eTag, lastModified, responseBody);
+            return parseIntegrationResponse(new ByteArrayInputStream(responseBody), consumer);
+        });
+    }
+
+    private static byte[] readAtMost(final InputStream input,
+                                     final int limit) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[StreamUtils.BUFFER_SIZE];
+        int read;
+        while (output.size() < limit && (read = input.read(buffer, 0, Math.min(buffer.length, limit - output.size()))) != -1) {
+            output.write(buffer, 0, read);
         }
+        return output.toByteArray();
     }
 
-    private IntegrationResponseDTO parseIntegrationResponse(final ResponseEntity response) {
-        final Object responseBody = response.getBody();
-        LOG.debug("Fetching integration resources response: " + responseBody);
-        if (responseBody != null) {
-            try {
-                final ObjectMapper mapper = new ObjectMapper();
-                mapper.setFilterProvider(new SimpleFilterProvider().setFailOnUnknownId(false));
-                final String data = responseBody.toString();
-                final IntegrationResponseDTO integrationResponse = mapper.readValue(data, new TypeReference<IntegrationResponseDTO>() {
-                });
-                Collections.sort(integrationResponse.getResults());
-                return integrationResponse;
-            } catch (final IOException e) {
-                throw new YtiMessagingException(new ErrorModel(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Failed to parse integration resources!"));
+    private Meta parseIntegrationResponse(final InputStream responseBody,
+                                          final Consumer<IntegrationResourceDTO> consumer) throws IOException {
+        Meta meta = null;
+        try (final JsonParser parser = responseMapper.getFactory().createParser(responseBody)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Failed to parse integration resources, response is not a JSON object!");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String fieldName = parser.getCurrentName();
+                final JsonToken valueToken = parser.nextToken();
+                if ("meta".equals(fieldName) && valueToken == JsonToken.START_OBJECT) {
+                    meta = metaReader.readValue(parser);
+                } else if ("results".equals(fieldName) && valueToken == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        consumer.accept(resourceReader.readValue(parser));
+                    }
+                } else {
+                    parser.skipChildren();
+                }
             }
-        } else {
-            throw new YtiMessagingException(new ErrorModel(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Failed to parse integration resources!"));
         }
+        return meta;
     }
 
     private HttpHeaders createRequestHeaders() {
@@ -147,28 +456,42 @@ public class IntegrationServiceImpl implements IntegrationService {
     private String createContainerRequestBody(final Set<String> containerUris,
                                               final boolean fetchDateRangeChanges,
                                               final boolean getLatest) {
-        final ObjectMapper mapper = new CustomObjectMapper();
-        final IntegrationResourceRequestDTO integrationResourceRequest = new IntegrationResourceRequestDTO();
-        integrationResourceRequest.setIncludeIncomplete(true);
+        final IntegrationResourceRequestDTO integrationResourceRequest = createContainerRequest(containerUris);
         if (fetchDateRangeChanges) {
             setAfterAndBefore(integrationResourceRequest, getLatest);
         }
+        return writeRequestBody(integrationResourceRequest);
+    }
+
+    private String createContainerRequestBody(final Set<String> containerUris,
+                                              final ChangeWindowDTO changeWindow) {
+        final IntegrationResourceRequestDTO integrationResourceRequest = createContainerRequest(containerUris);
+        integrationResourceRequest.setAfter(DateTimeFormatter.ISO_INSTANT.format(changeWindow.getAfter()));
+        integrationResourceRequest.setBefore(DateTimeFormatter.ISO_INSTANT.format(changeWindow.getBefore()));
+        return writeRequestBody(integrationResourceRequest);
+    }
+
+    private IntegrationResourceRequestDTO createContainerRequest(final Set<String> containerUris) {
+        final IntegrationResourceRequestDTO integrationResourceRequest = new IntegrationResourceRequestDTO();
+        integrationResourceRequest.setIncludeIncomplete(true);
         if (containerUris != null && !containerUris.isEmpty()) {
             integrationResourceRequest.setUri(new ArrayList<>(containerUris));
         }
         integrationResourceRequest.setLanguage(LANGUAGE_CODE_FI);
+        return integrationResourceRequest;
+    }
+
+    private String writeRequestBody(final IntegrationResourceRequestDTO integrationResourceRequest) {
         try {
-            return mapper.writeValueAsString(integrationResourceRequest);
+            return requestWriter.writeValueAsString(integrationResourceRequest);
         } catch (final JsonProcessingException e) {
             throw new YtiMessagingException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), "Integration request body generation failed due to error: " + e.getMessage()));
         }
     }
 
-    private String createResourcesRequestBody(final String applicationIdentifier,
-                                              final String container,
-                                              final boolean fetchDateRangeChanges,
-                                              final boolean getLatest) {
-        final ObjectMapper mapper = new CustomObjectMapper();
+    private IntegrationResourceRequestDTO createResourcesRequest(final String container,
+                                                                final boolean fetchDateRangeChanges,
+                                                                final boolean getLatest) {
         final IntegrationResourceRequestDTO integrationResourceRequest = new IntegrationResourceRequestDTO();
         integrationResourceRequest.setIncludeIncomplete(true);
         if (fetchDateRangeChanges) {
@@ -180,13 +503,7 @@ public class IntegrationServiceImpl implements IntegrationService {
             integrationResourceRequest.setContainer(containerUris);
         }
         integrationResourceRequest.setLanguage(LANGUAGE_CODE_EN);
-        integrationResourceRequest.setPageFrom(0);
-        integrationResourceRequest.setPageSize(RESOURCES_PAGE_SIZE);
-        try {
-            return mapper.writeValueAsString(integrationResourceRequest);
-        } catch (final JsonProcessingException e) {
-            throw new YtiMessagingException(new ErrorModel(HttpStatus.NOT_ACCEPTABLE.value(), "Integration request body generation failed due to error: " + e.getMessage()));
-        }
+        return integrationResourceRequest;
     }
 
     private void setAfterAndBefore(final IntegrationResourceRequestDTO integrationResourceRequestDto,
@@ -0,0 +1,79 @@
+package fi.vm.yti.messaging.service.impl;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import fi.vm.yti.messaging.configuration.NotificationProperties;
+import fi.vm.yti.messaging.dao.IntegrationWatermarkDao;
+import fi.vm.yti.messaging.dto.ChangeWindowDTO;
+import fi.vm.yti.messaging.service.IntegrationWatermarkService;
+
+@Service
+public class IntegrationWatermarkServiceImpl implements IntegrationWatermarkService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IntegrationWatermarkServiceImpl.class);
+
+    private final IntegrationWatermarkDao integrationWatermarkDao;
+    private final NotificationProperties notificationProperties;
+
+    @Inject
+    public IntegrationWatermarkServiceImpl(final IntegrationWatermarkDao integrationWatermarkDao,
+                                           final NotificationProperties notificationProperties) {
+        this.integrationWatermarkDao = integrationWatermarkDao;
+        this.notificationProperties = notificationProperties;
+    }
+
+    public ChangeWindowDTO openChangeWindow(final String applicationIdentifier) {
+        return openChangeWindow(applicationIdentifier, SubscriptionType.DAILY.toString(), notificationProperties.getInitialLookback());
+    }
+
+    public ChangeWindowDTO openChangeWindow(final String applicationIdentifier,
+                                            final String subscriptionType,
+                                            final Duration initialLookback) {
+        final String watermarkKey = resolveWatermarkKey(applicationIdentifier, subscriptionType);
+        final Instant before = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        final Instant watermark = integrationWatermarkDao.findWatermark(watermarkKey);
+        final Duration maxCatchUp = initialLookback.compareTo(notificationProperties.getMaxCatchUp()) > 0 ? initialLookback : notificationProperties.getMaxCatchUp();
+        final Instant earliestAfter = before.minus(maxCatchUp);
+        final Instant after;
+        if (watermark == null) {
+            after = before.minus(initialLookback);
+            LOG.info("No watermark found for " + watermarkKey + ", starting from " + after);
+        } else if (watermark.isBefore(earliestAfter)) {
+            after = earliestAfter;
+            LOG.warn(String.format("Watermark %s for %s is older than max catch-up of %s, skipping changes before %s.", watermark, watermarkKey, maxCatchUp, after));
+        } else {
+            after = watermark;
+        }
+        return new ChangeWindowDTO(applicationIdentifier, subscriptionType, after, before);
+    }
+
+    public Instant findWatermark(final String applicationIdentifier,
+                                 final String subscriptionType) {
+        return integrationWatermarkDao.findWatermark(resolveWatermarkKey(applicationIdentifier, subscriptionType));
+    }
+
+    public void advanceWatermark(final ChangeWindowDTO changeWindow) {
+        final String watermarkKey = resolveWatermarkKey(changeWindow.getApplication(), changeWindow.getSubscriptionType());
+        if (integrationWatermarkDao.advanceWatermark(watermarkKey, changeWindow.getBefore())) {
+            LOG.info("Advanced watermark for " + watermarkKey + " to " + changeWindow.getBefore());
+        } else {
+            LOG.warn("Watermark for " + watermarkKey + " is already at or past " + changeWindow.getBefore() + ", not advancing.");
+        }
+    }
+
+    private String resolveWatermarkKey(final String applicationIdentifier,
+                                       final String subscriptionType) {
+        if (subscriptionType == null || SubscriptionType.DAILY.toString().equalsIgnoreCase(subscriptionType)) {
+            return applicationIdentifier;
+        }
+        return applicationIdentifier + ":" + subscriptionType.toUpperCase();
+    }
+}
@@ -0,0 +1,106 @@
+package fi.vm.yti.messaging.service.impl;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import fi.vm.yti.messaging.configuration.JobLeaseProperties;
+import fi.vm.yti.messaging.dao.JobLeaseDao;
+import fi.vm.yti.messaging.dto.JobLeaseDTO;
+import fi.vm.yti.messaging.entity.JobLease;
+import fi.vm.yti.messaging.service.JobLeaseService;
+
+@Service
+public class JobLeaseServiceImpl implements JobLeaseService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(JobLeaseServiceImpl.class);
+
+    private final JobLeaseDao jobLeaseDao;
+    private final JobLeaseProperties jobLeaseProperties;
+    private final String owner;
+
+    @Inject
+    public JobLeaseServiceImpl(final JobLeaseDao jobLeaseDao,
+                               final JobLeaseProperties jobLeaseProperties) {
+        this.jobLeaseDao = jobLeaseDao;
+        this.jobLeaseProperties = jobLeaseProperties;
+        this.owner = resolveOwner(jobLeaseProperties.getOwner());
+        LOG.info("Scheduled job lease owner for this node: " + owner);
+    }
+
+    public boolean runWithLease(final String jobName,
+                                final Runnable job) {
+        return runWithLease(jobName, jobLeaseProperties.getLeaseDuration(), jobLeaseProperties.getMinimumHold(), job);
+    }
+
+    public boolean runWithLease(final String jobName,
+                                final Duration leaseDuration,
+                                final Duration minimumHold,
+                                final Runnable job) {
+        if (!jobLeaseDao.acquireLease(jobName, owner, leaseDuration)) {
+            LOG.info("Job " + jobName + " is leased by another node, skipping.");
+            return false;
+        }
+        LOG.info("Acquired lease for job " + jobName + " for at most " + leaseDuration + ".");
+        try {
+            job.run();
+            return true;
+        } finally {
+            releaseLease(jobName, minimumHold);
+        }
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public List<JobLeaseDTO> getJobLeases() {
+        final List<JobLeaseDTO> jobLeases = new ArrayList<>();
+        jobLeaseDao.findAll().forEach(jobLease -> jobLeases.add(mapJobLease(jobLease)));
+        return jobLeases;
+    }
+
+    private void releaseLease(final String jobName,
+                              final Duration minimumHold) {
+        try {
+            if (!jobLeaseDao.releaseLease(jobName, owner, minimumHold)) {
+                LOG.warn("Lease for job " + jobName + " was no longer held by " + owner + " when the job finished.");
+            }
+        } catch (final Exception e) {
+            LOG.error("Releasing lease for job " + jobName + " failed, it will expire on its own.", e);
+        }
+    }
+
+    private JobLeaseDTO mapJobLease(final JobLease jobLease) {
+        final JobLeaseDTO jobLeaseDto = new JobLeaseDTO();
+        jobLeaseDto.setJobName(jobLease.getJobName());
+        jobLeaseDto.setOwner(jobLease.getOwner());
+        jobLeaseDto.setAcquired(jobLease.getAcquired());
+        jobLeaseDto.setExpires(jobLease.getExpires());
+        jobLeaseDto.setReleased(jobLease.getReleased());
+        jobLeaseDto.setOwnedByThisNode(owner.equals(jobLease.getOwner()));
+        return jobLeaseDto;
+    }
+
+    private static String resolveOwner(final String configuredOwner) {
+        if (configuredOwner != null && !configuredOwner.isEmpty()) {
+            return configuredOwner;
+        }
+        String hostName;
+        try {
+            hostName = InetAddress.getLocalHost().getHostName();
+        } catch (final UnknownHostException e) {
+            hostName = "unknown";
+        }
+        return hostName + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,104 @@
+package fi.vm.yti.messaging.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import fi.vm.yti.messaging.dto.NotificationDryRunDTO;
+
+class NotificationDryRun {
+
+    private final UUID dryRunId;
+    private final long startTime;
+    private final Map<String, String> renderedBodies;
+    private final Map<UUID, String> userContentKeys;
+    private long fetchNanos;
+    private long mapNanos;
+    private long renderNanos;
+    private int updatedResources;
+    private int scannedUsers;
+    private long renderedBytes;
+
+    NotificationDryRun() {
+        this.dryRunId = UUID.randomUUID();
+        this.startTime = System.nanoTime();
+        this.renderedBodies = new LinkedHashMap<>();
+        this.userContentKeys = new LinkedHashMap<>();
+    }
+
+    UUID getDryRunId() {
+        return dryRunId;
+    }
+
+    <T> T timeFetch(final Supplier<T> fetch) {
+        final long start = System.nanoTime();
+        try {
+            return fetch.get();
+        } finally {
+            fetchNanos += System.nanoTime() - start;
+        }
+    }
+
+    <T> T timeMap(final int users,
+                  final Supplier<T> map) {
+        scannedUsers += users;
+        final long start = System.nanoTime();
+        try {
+            return map.get();
+        } finally {
+            mapNanos += System.nanoTime() - start;
+        }
+    }
+
+    <T> T timeRender(final Supplier<T> render) {
+        final long start = System.nanoTime();
+        try {
+            return render.get();
+        } finally {
+            renderNanos += System.nanoTime() - start;
+        }
+    }
+
+    void addDigest(final UUID userId,
+                   final String contentKey,
+                   final Supplier<String> renderer) {
+        final String body = renderedBodies.computeIfAbsent(contentKey, key -> timeRender(renderer));
+        renderedBytes += body.getBytes(StandardCharsets.UTF_8).length;
+        userContentKeys.put(userId, contentKey);
+    }
+
+    void setUpdatedResources(final int updatedResources) {
+        this.updatedResources = updatedResources;
+    }
+
+    Map<String, String> getRenderedBodies() {
+        return renderedBodies;
+    }
+
+    Map<UUID, String> getUserContentKeys() {
+        return userContentKeys;
+    }
+
+    NotificationDryRunDTO summarize() {
+        final NotificationDryRunDTO summary = new NotificationDryRunDTO();
+        summary.setDryRunId(dryRunId);
+        summary.setUpdatedResources(updatedResources);
+        summary.setScannedUsers(scannedUsers);
+        summary.setDigests(userContentKeys.size());
+        summary.setDistinctBodies(renderedBodies.size());
+        summary.setRenderedBytes(renderedBytes);
+        summary.setFetchMillis(TimeUnit.NANOSECONDS.toMillis(fetchNanos));
+        summary.setMapMillis(TimeUnit.NANOSECONDS.toMillis(mapNanos));
+        summary.setRenderMillis(TimeUnit.NANOSECONDS.toMillis(renderNanos));
+        summary.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        return summary;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("dry run %s: %d digests for %d scanned users, %d distinct bodies, %d bytes rendered", dryRunId, userContentKeys.size(), scannedUsers, renderedBodies.size(), renderedBytes);
+    }
+}
@@ -0,0 +1,11 @@
+package fi.vm.yti.messaging.service.impl;
+
+public enum NotificationJobPhase {
+    NOTHING_TO_PLAN,
+    PENDING,
+    PROCESSING,
+    DELIVERING,
+    COMPLETED,
+    FAILED,
+    ABANDONED
+}
@@ -0,0 +1,120 @@
+package fi.vm.yti.messaging.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+@Component
+public class NotificationMetrics {
+
+    private final Timer fetchTimer;
+    private final Timer mapTimer;
+    private final Timer renderTimer;
+    private final Timer sendSuccessTimer;
+    private final Timer sendFailureTimer;
+    private final Counter usersScanned;
+    private final Counter usersMatched;
+    private final Counter queueFailures;
+    private final DistributionSummary renderedBytes;
+    private final AtomicInteger activePartitions;
+    private final AtomicInteger activeShards;
+
+    public NotificationMetrics(final MeterRegistry meterRegistry) {
+        fetchTimer = createTimer(meterRegistry, "notification.fetch", "Fetching and mapping updated resources from the integration APIs");
+        mapTimer = createTimer(meterRegistry, "notification.map", "Matching a chunk of subscriptions against updated resources");
+        renderTimer = createTimer(meterRegistry, "notification.render", "Rendering a notification message body");
+        sendSuccessTimer = createSendTimer(meterRegistry, "success");
+        sendFailureTimer = createSendTimer(meterRegistry, "failure");
+        usersScanned = Counter.builder("notification.users.scanned")
+            .description("Subscribed users scanned for updated resources")
+            .register(meterRegistry);
+        usersMatched = Counter.builder("notification.users.matched")
+            .description("Users with at least one updated subscribed resource")
+            .register(meterRegistry);
+        queueFailures = Counter.builder("notification.queue.failures")
+            .description("Notifications that could not be queued to the e-mail outbox")
+            .register(meterRegistry);
+        renderedBytes = DistributionSummary.builder("notification.rendered.bytes")
+            .description("Size of rendered notification message bodies, recorded once per queued e-mail")
+            .baseUnit("bytes")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        activePartitions = meterRegistry.gauge("notification.partitions.active", new AtomicInteger());
+        activeShards = meterRegistry.gauge("notification.shards.active", new AtomicInteger());
+    }
+
+    <T> T recordFetch(final Supplier<T> fetch) {
+        return fetchTimer.record(fetch);
+    }
+
+    <T> T recordMap(final int scannedUsers,
+                    final Supplier<T> map) {
+        usersScanned.increment(scannedUsers);
+        return mapTimer.record(map);
+    }
+
+    String recordRender(final Supplier<String> render) {
+        return renderTimer.record(render);
+    }
+
+    void recordQueued(final Collection<String> messages) {
+        messages.forEach(message -> renderedBytes.record(message.getBytes(StandardCharsets.UTF_8).length));
+    }
+
+    void recordSend(final long startNanos,
+                    final boolean success) {
+        final Timer timer = success ? sendSuccessTimer : sendFailureTimer;
+        timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void usersMatched(final int count) {
+        usersMatched.increment(count);
+    }
+
+    void queueFailed(final int count) {
+        queueFailures.increment(count);
+    }
+
+    void partitionStarted() {
+        activePartitions.incrementAndGet();
+    }
+
+    void partitionFinished() {
+        activePartitions.decrementAndGet();
+    }
+
+    void shardStarted() {
+        activeShards.incrementAndGet();
+    }
+
+    void shardFinished() {
+        activeShards.decrementAndGet();
+    }
+
+    private static Timer createTimer(final MeterRegistry meterRegistry,
+                                     final String name,
+                                     final String description) {
+        return Timer.builder(name)
+            .description(description)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+
+    private static Timer createSendTimer(final MeterRegistry meterRegistry,
+                                         final String outcome) {
+        return Timer.builder("email.send")
+            .description("Delivering a notification e-mail to the SMTP relay")
+            .tag("outcome", outcome)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,110 @@
+package fi.vm.yti.messaging.service.impl;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+class NotificationRun {
+
+    private final UUID runId;
+    private final long startTime;
+    private final Map<String, String> resourceFragments;
+    private final Map<String, String> renderedBodies;
+    private final AtomicInteger submittedPartitions;
+    private final AtomicInteger completedPartitions;
+    private final AtomicInteger matchedUsers;
+    private final AtomicInteger queuedNotifications;
+    private final AtomicInteger failedNotifications;
+    private volatile boolean completed;
+
+    NotificationRun(final UUID runId,
+                    final Map<String, String> resourceFragments) {
+        this.runId = runId;
+        this.startTime = System.nanoTime();
+        this.resourceFragments = resourceFragments;
+        this.renderedBodies = new ConcurrentHashMap<>();
+        this.submittedPartitions = new AtomicInteger();
+        this.completedPartitions = new AtomicInteger();
+        this.matchedUsers = new AtomicInteger();
+        this.queuedNotifications = new AtomicInteger();
+        this.failedNotifications = new AtomicInteger();
+    }
+
+    UUID getRunId() {
+        return runId;
+    }
+
+    Map<String, String> getResourceFragments() {
+        return resourceFragments;
+    }
+
+    String getOrRenderBody(final String contentKey,
+                           final Function<String, String> renderer) {
+        return renderedBodies.computeIfAbsent(contentKey, renderer);
+    }
+
+    int submitPartition(final int userCount) {
+        matchedUsers.addAndGet(userCount);
+        return submittedPartitions.incrementAndGet();
+    }
+
+    int completePartition() {
+        return completedPartitions.incrementAndGet();
+    }
+
+    void notificationsQueued(final int count) {
+        queuedNotifications.addAndGet(count);
+    }
+
+    void notificationsFailed(final int count) {
+        failedNotifications.addAndGet(count);
+    }
+
+    void markCompleted() {
+        completed = true;
+    }
+
+    boolean isCompleted() {
+        return completed;
+    }
+
+    boolean isSuccessful() {
+        return completed && failedNotifications.get() == 0;
+    }
+
+    long getStartTime() {
+        return startTime;
+    }
+
+    long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+    }
+
+    int getSubmittedPartitions() {
+        return submittedPartitions.get();
+    }
+
+    int getMatchedUsers() {
+        return matchedUsers.get();
+    }
+
+    int getQueuedNotifications() {
+        return queuedNotifications.get();
+    }
+
+    int getFailedNotifications() {
+        return failedNotifications.get();
+    }
+
+    int getRenderedBodies() {
+        return renderedBodies.size();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d/%d notifications queued, %d failed, %d distinct bodies rendered, %d partitions, %d ms elapsed", getQueuedNotifications(), getMatchedUsers(), getFailedNotifications(), getRenderedBodies(), getSubmittedPartitions(), getElapsedMillis());
+    }
+}
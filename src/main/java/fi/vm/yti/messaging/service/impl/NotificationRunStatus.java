@@ -0,0 +1,8 @@
+package fi.vm.yti.messaging.service.impl;
+
+public enum NotificationRunStatus {
+    OPEN,
+    COMPLETED,
+    FAILED,
+    ABANDONED
+}
@@ -1,36 +1,70 @@
 package fi.vm.yti.messaging.service.impl;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
-import java.util.function.Predicate;
-
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import fi.vm.yti.messaging.api.Meta;
 import fi.vm.yti.messaging.configuration.MessagingServiceProperties;
+import fi.vm.yti.messaging.configuration.NotificationProperties;
+import fi.vm.yti.messaging.dao.NotificationShardDao;
+import fi.vm.yti.messaging.dto.ChangeWindowDTO;
+import fi.vm.yti.messaging.dto.ErrorModel;
 import fi.vm.yti.messaging.dto.IntegrationResourceDTO;
 import fi.vm.yti.messaging.dto.IntegrationResponseDTO;
+import fi.vm.yti.messaging.dto.NotificationDryRunDTO;
+import fi.vm.yti.messaging.dto.NotificationJobDTO;
 import fi.vm.yti.messaging.dto.ResourceDTO;
 import fi.vm.yti.messaging.dto.UserDTO;
 import fi.vm.yti.messaging.dto.UserNotificationDTO;
+import fi.vm.yti.messaging.entity.NotificationRunRecord;
+import fi.vm.yti.messaging.entity.NotificationShard;
 import fi.vm.yti.messaging.exception.NotFoundException;
 import fi.vm.yti.messaging.exception.NotModifiedException;
-import fi.vm.yti.messaging.service.EmailService;
+import fi.vm.yti.messaging.exception.YtiMessagingException;
+import fi.vm.yti.messaging.service.EmailOutboxService;
 import fi.vm.yti.messaging.service.IntegrationService;
+import fi.vm.yti.messaging.service.IntegrationWatermarkService;
+import fi.vm.yti.messaging.service.JobLeaseService;
 import fi.vm.yti.messaging.service.NotificationService;
 import fi.vm.yti.messaging.service.ResourceService;
 import fi.vm.yti.messaging.service.UserService;
@@ -42,6 +76,10 @@ public class NotificationServiceImpl implements NotificationService {
 
     private static final Logger LOG = LoggerFactory.getLogger(NotificationServiceImpl.class);
     private static final String SUBSCRIPTION_TYPE_DAILY = "DAILY";
+    private static final String SUBSCRIPTION_TYPE_INSTANT = "INSTANT";
+    private static final String JOB_SEND_ALL_NOTIFICATIONS = "sendAllNotifications";
+    private static final String JOB_SEND_INSTANT_NOTIFICATIONS = "sendInstantNotifications";
+    private static final ZoneId NOTIFICATION_ZONE = ZoneId.of("Europe/Helsinki");
 
     private static final String LANGUAGE_FI = "fi";
     private static final String LANGUAGE_EN = "en";
@@ -50,30 +88,254 @@ public class NotificationServiceImpl implements NotificationService {
 
     private final UserService userService;
     private final ResourceService resourceService;
-    private final EmailService emailService;
+    private final EmailOutboxService emailOutboxService;
     private final IntegrationService integrationService;
+    private final IntegrationWatermarkService integrationWatermarkService;
+    private final JobLeaseService jobLeaseService;
+    private final NotificationShardDao notificationShardDao;
     private final MessagingServiceProperties messagingServiceProperties;
+    private final NotificationProperties notificationProperties;
+    private final NotificationMetrics notificationMetrics;
+    private final Map<UUID, Map<String, Map<String, IntegrationResourceDTO>>> updatedResourcesByRun;
+    private final ExecutorService shardExecutor;
 
     @Inject
     public NotificationServiceImpl(final UserService userService,
                                    final ResourceService resourceService,
-                                   final EmailService emailService,
+                                   final EmailOutboxService emailOutboxService,
                                    final IntegrationService integrationService,
-                                   final MessagingServiceProperties messagingServiceProperties) {
+                                   final IntegrationWatermarkService integrationWatermarkService,
+                                   final JobLeaseService jobLeaseService,
+                                   final NotificationShardDao notificationShardDao,
+                                   final MessagingServiceProperties messagingServiceProperties,
+                                   final NotificationProperties notificationProperties,
+                                   final NotificationMetrics notificationMetrics) {
         this.userService = userService;
         this.resourceService = resourceService;
-        this.emailService = emailService;
+        this.emailOutboxService = emailOutboxService;
         this.integrationService = integrationService;
+        this.integrationWatermarkService = integrationWatermarkService;
+        this.jobLeaseService = jobLeaseService;
+        this.notificationShardDao = notificationShardDao;
         this.messagingServiceProperties = messagingServiceProperties;
+        this.notificationProperties = notificationProperties;
+        this.notificationMetrics = notificationMetrics;
+        this.updatedResourcesByRun = new ConcurrentHashMap<>();
+        this.shardExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1),
+            new CustomizableThreadFactory("notification-shards-"),
+            new ThreadPoolExecutor.DiscardPolicy());
     }
 
-    @Scheduled(cron = "0 0 7 * * *", zone = "Europe/Helsinki")
-    @Transactional
+    @Scheduled(cron = "0 0 * * * *", zone = "Europe/Helsinki")
     public void sendAllNotifications() {
-        LOG.info("Sending scheduled notifications!");
-        final Map<String, IntegrationResourceDTO> updatedResourcesMap = fetchAndMapUpdatedResources();
-        final Map<UUID, UserNotificationDTO> userNotifications = mapUserNotifications(updatedResourcesMap);
-        sendUserNotifications(userNotifications);
+        jobLeaseService.runWithLease(JOB_SEND_ALL_NOTIFICATIONS, () -> planScheduledNotifications(false));
+        startShardProcessing();
+    }
+
+    public NotificationJobDTO triggerNotificationRun() {
+        NotificationRunRecord openRun = notificationShardDao.findOpenRun();
+        if (openRun != null) {
+            LOG.info("Notification run " + openRun.getId() + " is already in progress, joining it.");
+        } else {
+            final AtomicBoolean digestsDue = new AtomicBoolean(true);
+            final boolean planned = jobLeaseService.runWithLease(JOB_SEND_ALL_NOTIFICATIONS, () -> digestsDue.set(planScheduledNotifications(true)));
+            if (planned && !digestsDue.get()) {
+                final NotificationJobDTO job = new NotificationJobDTO();
+                job.setPhase(NotificationJobPhase.NOTHING_TO_PLAN.toString());
+                return job;
+            }
+            openRun = notificationShardDao.findOpenRun();
+            if (openRun == null) {
+                throw new YtiMessagingException(new ErrorModel(HttpStatus.CONFLICT.value(), "A notification run is being planned or has just finished, try again later."));
+            }
+            startShardProcessing();
+        }
+        return summarizeNotificationJob(openRun);
+    }
+
+    public NotificationJobDTO getNotificationJob(final UUID jobId) {
+        final NotificationRunRecord run = notificationShardDao.findRun(jobId);
+        if (run == null) {
+            throw new YtiMessagingException(new ErrorModel(HttpStatus.NOT_FOUND.value(), "Notification job not found: " + jobId));
+        }
+        return summarizeNotificationJob(run);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        shardExecutor.shutdownNow();
+    }
+
+    @Scheduled(fixedDelayString = "${notification.instantPollInterval:300000}")
+    public void sendInstantNotifications() {
+        jobLeaseService.runWithLease(JOB_SEND_INSTANT_NOTIFICATIONS, notificationProperties.getCompletionTimeout(), notificationProperties.getInstantLeaseHold(), this::sendInstantNotificationCycle);
+    }
+
+    private void sendInstantNotificationCycle() {
+        final ChangeWindowDTO changeWindow = integrationWatermarkService.openChangeWindow(APPLICATION_DATAMODEL, SUBSCRIPTION_TYPE_INSTANT, notificationProperties.getInstantInitialLookback());
+        final Instant settledBefore = changeWindow.getBefore().minus(notificationProperties.getInstantCoalesceWindow());
+        if (!settledBefore.isAfter(changeWindow.getAfter())) {
+            LOG.debug("Instant change window " + changeWindow + " is shorter than the coalesce window, waiting for more changes.");
+            return;
+        }
+        final Map<String, IntegrationResourceDTO> settledResourcesMap = new HashMap<>();
+        final List<IntegrationResourceDTO> updatedContainers = getUpdatedApplicationContainers(changeWindow);
+        if (updatedContainers != null) {
+            updatedContainers.forEach(container -> {
+                if (isSettled(container, settledBefore)) {
+                    settledResourcesMap.put(container.getUri(), container);
+                }
+            });
+        }
+        final NotificationRun run = sendUserNotifications(null, settledResourcesMap, SUBSCRIPTION_TYPE_INSTANT, 1, 0);
+        if (run.isSuccessful()) {
+            integrationWatermarkService.advanceWatermark(new ChangeWindowDTO(changeWindow.getApplication(), changeWindow.getSubscriptionType(), changeWindow.getAfter(), settledBefore));
+        } else {
+            LOG.warn("Instant notification cycle did not complete successfully, watermark is not advanced.");
+        }
+    }
+
+    private boolean isSettled(final IntegrationResourceDTO container,
+                              final Instant settledBefore) {
+        final Date modified = container.getModified();
+        final Date contentModified = container.getContentModified();
+        final boolean modifiedSettled = modified == null || modified.toInstant().isBefore(settledBefore);
+        final boolean contentModifiedSettled = contentModified == null || contentModified.toInstant().isBefore(settledBefore);
+        return modifiedSettled && contentModifiedSettled;
+    }
+
+    @Scheduled(fixedDelayString = "${notification.shardPollInterval:60000}")
+    public void pollNotificationShards() {
+        startShardProcessing();
+    }
+
+    private void startShardProcessing() {
+        shardExecutor.execute(this::processNotificationShards);
+    }
+
+    private void processNotificationShards() {
+        final int maxAttempts = notificationProperties.getShardMaxAttempts();
+        try {
+            for (final UUID runId : notificationShardDao.failExhaustedShards(maxAttempts)) {
+                LOG.error("Notification run " + runId + " has shards that did not complete within " + maxAttempts + " attempts, marked them failed.");
+                finishNotificationRun(runId);
+            }
+            NotificationShard shard;
+            while ((shard = notificationShardDao.claimShard(jobLeaseService.getOwner(), notificationProperties.getShardLease(), maxAttempts)) != null) {
+                processNotificationShard(shard);
+            }
+        } catch (final RuntimeException e) {
+            LOG.error("Processing notification shards failed, retrying on the next poll.", e);
+        }
+    }
+
+    /**
+     * @return false if no digests were due and no run was created
+     */
+    private boolean planScheduledNotifications(final boolean forceDaily) {
+        LOG.info("Planning scheduled notifications!");
+        final int abandonedRuns = notificationShardDao.abandonStaleRuns(notificationProperties.getShardLease());
+        if (abandonedRuns > 0) {
+            LOG.warn("Abandoned " + abandonedRuns + " stale notification runs without live shard leases, their changes are included in the new run.");
+        }
+        final NotificationRunRecord openRun = notificationShardDao.findOpenRun();
+        if (openRun != null) {
+            LOG.info("Notification run " + openRun.getId() + " is still in progress, due digests are planned once it finishes.");
+            return true;
+        }
+        final List<ChangeWindowDTO> changeWindows = openDueChangeWindows(forceDaily);
+        if (changeWindows.isEmpty()) {
+            LOG.info("No digests are due, no notification run created.");
+            return false;
+        }
+        final int shardCount = notificationProperties.getShardCount();
+        final UUID runId = notificationShardDao.createRun(changeWindows, shardCount);
+        LOG.info("Created notification run " + runId + " with " + shardCount + " shards.");
+        return true;
+    }
+
+    private NotificationJobDTO summarizeNotificationJob(final NotificationRunRecord run) {
+        final NotificationJobDTO job = notificationShardDao.summarizeRun(run);
+        final Map<EmailOutboxStatus, Integer> mailCounts = emailOutboxService.countMailsByRun(run.getId());
+        job.setEmailsPending(mailCounts.getOrDefault(EmailOutboxStatus.PENDING, 0) + mailCounts.getOrDefault(EmailOutboxStatus.SENDING, 0));
+        job.setEmailsSent(mailCounts.getOrDefault(EmailOutboxStatus.SENT, 0));
+        job.setEmailsFailed(mailCounts.getOrDefault(EmailOutboxStatus.FAILED, 0));
+        job.setPhase(resolveJobPhase(job).toString());
+        return job;
+    }
+
+    private NotificationJobPhase resolveJobPhase(final NotificationJobDTO job) {
+        final NotificationRunStatus status = NotificationRunStatus.valueOf(job.getStatus());
+        switch (status) {
+            case OPEN:
+                return job.getRunningShards() == 0 && job.getProcessedShards() == 0 ? NotificationJobPhase.PENDING : NotificationJobPhase.PROCESSING;
+            case ABANDONED:
+                return NotificationJobPhase.ABANDONED;
+            default:
+                if (job.getEmailsPending() > 0) {
+                    return NotificationJobPhase.DELIVERING;
+                }
+                return status == NotificationRunStatus.COMPLETED ? NotificationJobPhase.COMPLETED : NotificationJobPhase.FAILED;
+        }
+    }
+
+    private void processNotificationShard(final NotificationShard shard) {
+        final UUID runId = shard.getRunId();
+        LOG.info(String.format("Processing notification run %s shard %d, attempt %d.", runId, shard.getShard(), shard.getAttempts()));
+        notificationMetrics.shardStarted();
+        boolean successful = true;
+        int matchedUsers = 0;
+        int queuedNotifications = 0;
+        int failedNotifications = 0;
+        try {
+            final NotificationRunRecord runRecord = notificationShardDao.findRun(runId);
+            if (runRecord == null) {
+                throw new YtiMessagingException(new ErrorModel(HttpStatus.NOT_FOUND.value(), "Notification run not found: " + runId));
+            }
+            final Map<String, Map<String, IntegrationResourceDTO>> updatedResourcesBySubscriptionType = getUpdatedResourcesForRun(runId);
+            final int shardCount = runRecord.getShardCount();
+            for (final Map.Entry<String, Map<String, IntegrationResourceDTO>> entry : updatedResourcesBySubscriptionType.entrySet()) {
+                final NotificationRun run = sendUserNotifications(runId, entry.getValue(), entry.getKey(), shardCount, shard.getShard());
+                successful &= run.isSuccessful();
+                matchedUsers += run.getMatchedUsers();
+                queuedNotifications += run.getQueuedNotifications();
+                failedNotifications += run.getFailedNotifications();
+            }
+        } catch (final RuntimeException e) {
+            successful = false;
+            LOG.error(String.format("Processing notification run %s shard %d failed.", runId, shard.getShard()), e);
+        } finally {
+            notificationMetrics.shardFinished();
+        }
+        if (!notificationShardDao.completeShard(shard, jobLeaseService.getOwner(), successful, matchedUsers, queuedNotifications, failedNotifications)) {
+            LOG.warn(String.format("Lease on notification run %s shard %d was lost before completion, it may have been processed twice.", runId, shard.getShard()));
+        }
+        finishNotificationRun(runId);
+    }
+
+    private void finishNotificationRun(final UUID runId) {
+        final NotificationRunRecord finishedRun = notificationShardDao.finishRun(runId);
+        if (finishedRun != null) {
+            if (NotificationRunStatus.COMPLETED.toString().equals(finishedRun.getStatus())) {
+                LOG.info("All shards of notification run " + runId + " completed, advancing watermarks.");
+                notificationShardDao.findRunWindows(runId).forEach(integrationWatermarkService::advanceWatermark);
+            } else {
+                LOG.warn("Notification run " + runId + " had failed shards, watermarks are not advanced and the same changes will be retried on the next run.");
+            }
+            updatedResourcesByRun.remove(runId);
+        }
+    }
+
+    private Map<String, Map<String, IntegrationResourceDTO>> getUpdatedResourcesForRun(final UUID runId) {
+        final Map<String, Map<String, IntegrationResourceDTO>> cachedResources = updatedResourcesByRun.get(runId);
+        if (cachedResources != null) {
+            return cachedResources;
+        }
+        final Map<String, Map<String, IntegrationResourceDTO>> updatedResourcesBySubscriptionType = fetchAndMapUpdatedResources(notificationShardDao.findRunWindows(runId));
+        updatedResourcesByRun.clear();
+        updatedResourcesByRun.put(runId, updatedResourcesBySubscriptionType);
+        return updatedResourcesBySubscriptionType;
     }
 
     @Transactional
@@ -81,9 +343,9 @@ public class NotificationServiceImpl implements NotificationService {
         final UserDTO user = userService.findById(userId);
         if (user != null && SUBSCRIPTION_TYPE_DAILY.equalsIgnoreCase(user.getSubscriptionType())) {
             final Map<String, IntegrationResourceDTO> updatedResourcesMap = fetchAndMapUpdatedResourcesForUser(userId);
-            final UserNotificationDTO userNotification = mapUserNotificationResource(user, updatedResourcesMap);
+            final UserNotificationDTO userNotification = mapUserNotificationResource(user, new SortedUpdates(updatedResourcesMap.values()));
             if (userNotification != null) {
-                sendSingleUserNotifications(user.getId(), userNotification);
+                sendSingleUserNotifications(user.getId(), userNotification, renderResourceFragments(updatedResourcesMap));
             } else {
                 throw new NotModifiedException();
             }
@@ -92,55 +354,174 @@ public class NotificationServiceImpl implements NotificationService {
         }
     }
 
-    private Map<String, IntegrationResourceDTO> fetchAndMapUpdatedResources() {
-        return fetchAndMapUpdatedResourcesForUser(null);
+    public NotificationDryRunDTO dryRunNotifications(final String subscriptionType,
+                                                     final boolean writeBodies) {
+        final DigestFrequency frequency = resolveDigestFrequency(subscriptionType);
+        final NotificationDryRun dryRun = new NotificationDryRun();
+        final ChangeWindowDTO changeWindow = integrationWatermarkService.openChangeWindow(APPLICATION_DATAMODEL, frequency.toString(), frequency.getPeriod());
+        LOG.info("Starting notification " + dryRun + " for " + changeWindow);
+        final Map<String, IntegrationResourceDTO> updatedResourcesMap = dryRun.timeFetch(() -> streamAndMapUpdatedResources(Collections.singletonList(changeWindow)).get(frequency.toString()));
+        dryRun.setUpdatedResources(updatedResourcesMap.size());
+        if (!updatedResourcesMap.isEmpty()) {
+            final SortedUpdates sortedUpdates = new SortedUpdates(updatedResourcesMap.values());
+            final Map<String, String> resourceFragments = dryRun.timeRender(() -> renderResourceFragments(updatedResourcesMap));
+            userService.streamSubscriptionsByResourceUris(updatedResourcesMap.keySet(), frequency.toString(), 1, 0, notificationProperties.getPartitionSize(), subscriptions -> {
+                final Map<UUID, UserNotificationDTO> partition = dryRun.timeMap(subscriptions.size(), () -> {
+                    final Map<UUID, UserNotificationDTO> mappedNotifications = new HashMap<>();
+                    subscriptions.forEach((userId, resources) -> {
+                        final UserNotificationDTO userNotificationDto = mapUserNotificationResource(resources, sortedUpdates);
+                        if (userNotificationDto != null) {
+                            mappedNotifications.put(userId, userNotificationDto);
+                        }
+                    });
+                    return mappedNotifications;
+                });
+                partition.forEach((userId, userNotificationDto) -> dryRun.addDigest(userId, createContentKey(userNotificationDto), () -> constructMessage(userNotificationDto, resourceFragments)));
+            });
+        }
+        final NotificationDryRunDTO summary = dryRun.summarize();
+        summary.setSubscriptionType(frequency.toString());
+        summary.setChangeWindow(changeWindow.toString());
+        if (writeBodies) {
+            summary.setOutputDirectory(writeDryRunBodies(dryRun).toString());
+        }
+        LOG.info("Finished notification " + dryRun + " in " + summary.getElapsedMillis() + " ms.");
+        return summary;
+    }
+
+    private DigestFrequency resolveDigestFrequency(final String subscriptionType) {
+        try {
+            return DigestFrequency.valueOf(subscriptionType.toUpperCase());
+        } catch (final IllegalArgumentException e) {
+            throw new YtiMessagingException(new ErrorModel(HttpStatus.BAD_REQUEST.value(), "Unknown digest subscription type: " + subscriptionType));
+        }
+    }
+
+    private Path writeDryRunBodies(final NotificationDryRun dryRun) {
+        final Path outputDirectory = Paths.get(notificationProperties.getDryRunOutputDirectory(), dryRun.getDryRunId().toString());
+        try {
+            Files.createDirectories(outputDirectory);
+            final Map<String, String> bodyFiles = new HashMap<>();
+            int bodyNumber = 0;
+            for (final Map.Entry<String, String> entry : dryRun.getRenderedBodies().entrySet()) {
+                final String bodyFile = String.format("body-%05d.html", ++bodyNumber);
+                Files.write(outputDirectory.resolve(bodyFile), entry.getValue().getBytes(StandardCharsets.UTF_8));
+                bodyFiles.put(entry.getKey(), bodyFile);
+            }
+            try (final BufferedWriter writer = Files.newBufferedWriter(outputDirectory.resolve("digests.csv"), StandardCharsets.UTF_8)) {
+                writer.write("userId,body");
+                writer.newLine();
+                for (final Map.Entry<UUID, String> entry : dryRun.getUserContentKeys().entrySet()) {
+                    writer.write(entry.getKey() + "," + bodyFiles.get(entry.getValue()));
+                    writer.newLine();
+                }
+            }
+        } catch (final IOException e) {
+            LOG.error("Writing notification dry run bodies to " + outputDirectory + " failed.", e);
+            throw new YtiMessagingException(new ErrorModel(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Failed to write dry run bodies to: " + outputDirectory));
+        }
+        return outputDirectory;
+    }
+
+    private List<ChangeWindowDTO> openDueChangeWindows(final boolean forceDaily) {
+        final ZonedDateTime now = ZonedDateTime.now(NOTIFICATION_ZONE);
+        final List<ChangeWindowDTO> changeWindows = new ArrayList<>();
+        for (final DigestFrequency frequency : DigestFrequency.values()) {
+            final String subscriptionType = frequency.toString();
+            final boolean forced = forceDaily && frequency == DigestFrequency.DAILY;
+            if (!forced && !frequency.isDue(integrationWatermarkService.findWatermark(APPLICATION_DATAMODEL, subscriptionType), now, notificationProperties.getDigestHour())) {
+                continue;
+            }
+            final ChangeWindowDTO changeWindow = integrationWatermarkService.openChangeWindow(APPLICATION_DATAMODEL, subscriptionType, frequency.getPeriod());
+            if (userService.hasSubscribers(subscriptionType)) {
+                LOG.info("Fetching changes for " + changeWindow);
+                changeWindows.add(changeWindow);
+            } else {
+                LOG.debug("No " + subscriptionType + " subscribers, skipping " + changeWindow);
+                integrationWatermarkService.advanceWatermark(changeWindow);
+            }
+        }
+        return changeWindows;
+    }
+
+    private Map<String, Map<String, IntegrationResourceDTO>> fetchAndMapUpdatedResources(final List<ChangeWindowDTO> changeWindows) {
+        return notificationMetrics.recordFetch(() -> streamAndMapUpdatedResources(changeWindows));
+    }
+
+    private Map<String, Map<String, IntegrationResourceDTO>> streamAndMapUpdatedResources(final List<ChangeWindowDTO> changeWindows) {
+        final Map<String, Map<String, IntegrationResourceDTO>> updatedResourcesBySubscriptionType = new LinkedHashMap<>();
+        changeWindows.forEach(changeWindow -> updatedResourcesBySubscriptionType.computeIfAbsent(changeWindow.getSubscriptionType(), subscriptionType -> new HashMap<>()));
+        mergeChangeWindows(changeWindows).forEach(mergedChangeWindow -> streamUpdatedApplicationContainers(mergedChangeWindow, updatedResource -> changeWindows.forEach(changeWindow -> {
+            if (changeWindow.getApplication().equals(mergedChangeWindow.getApplication()) && isModifiedInWindow(updatedResource, changeWindow)) {
+                updatedResourcesBySubscriptionType.get(changeWindow.getSubscriptionType()).put(updatedResource.getUri(), updatedResource);
+            }
+        })));
+        return updatedResourcesBySubscriptionType;
+    }
+
+    private boolean isModifiedInWindow(final IntegrationResourceDTO resource,
+                                       final ChangeWindowDTO changeWindow) {
+        final Date modified = resource.getModified();
+        final Date contentModified = resource.getContentModified();
+        if (modified == null && contentModified == null) {
+            return true;
+        }
+        final boolean modifiedInWindow = modified != null && !modified.toInstant().isBefore(changeWindow.getAfter());
+        final boolean contentModifiedInWindow = contentModified != null && !contentModified.toInstant().isBefore(changeWindow.getAfter());
+        return modifiedInWindow || contentModifiedInWindow;
     }
 
     private Map<String, IntegrationResourceDTO> fetchAndMapUpdatedResourcesForUser(final UUID userId) {
+        return mapUpdatedResources(getUpdatedContainersForAllApplications(userId));
+    }
+
+    private Map<String, IntegrationResourceDTO> mapUpdatedResources(final List<IntegrationResourceDTO> allUpdates) {
         final Map<String, IntegrationResourceDTO> updatedResourcesMap = new HashMap<>();
-        final List<IntegrationResourceDTO> allUpdates = getUpdatedContainersForAllApplications(userId);
         allUpdates.forEach(updatedResource -> updatedResourcesMap.put(updatedResource.getUri(), updatedResource));
         return updatedResourcesMap;
     }
 
-    private Map<UUID, UserNotificationDTO> mapUserNotifications(final Map<String, IntegrationResourceDTO> updatedResourcesMap) {
-        final Map<UUID, UserNotificationDTO> userNotifications = new HashMap<>();
-        final Set<UserDTO> users = userService.findAll();
-        for (final UserDTO user : users) {
-            if (SUBSCRIPTION_TYPE_DAILY.equalsIgnoreCase(user.getSubscriptionType())) {
-                final UserNotificationDTO userNotificationDto = mapUserNotificationResource(user, updatedResourcesMap);
+    private Map<UUID, UserNotificationDTO> mapUserNotifications(final Map<UUID, Set<ResourceDTO>> subscriptions,
+                                                                final SortedUpdates sortedUpdates) {
+        final Map<UUID, UserNotificationDTO> userNotifications = notificationMetrics.recordMap(subscriptions.size(), () -> {
+            final Map<UUID, UserNotificationDTO> mappedNotifications = new HashMap<>();
+            subscriptions.forEach((userId, resources) -> {
+                final UserNotificationDTO userNotificationDto = mapUserNotificationResource(resources, sortedUpdates);
                 if (userNotificationDto != null) {
-                    userNotifications.put(user.getId(), userNotificationDto);
+                    mappedNotifications.put(userId, userNotificationDto);
                 }
-            }
-        }
+            });
+            return mappedNotifications;
+        });
+        notificationMetrics.usersMatched(userNotifications.size());
         return userNotifications;
     }
 
     private UserNotificationDTO mapUserNotificationResource(final UserDTO user,
-                                                            final Map<String, IntegrationResourceDTO> updatedResourcesMap) {
-        final Set<ResourceDTO> resources = user.getResources();
+                                                            final SortedUpdates sortedUpdates) {
+        return mapUserNotificationResource(user.getResources(), sortedUpdates);
+    }
+
+    private UserNotificationDTO mapUserNotificationResource(final Set<ResourceDTO> resources,
+                                                            final SortedUpdates sortedUpdates) {
         if (resources != null && !resources.isEmpty()) {
             final List<IntegrationResourceDTO> codeListUpdates = new ArrayList<>();
-            final List<IntegrationResourceDTO> dataModelUpdates = new ArrayList<>();
             final List<IntegrationResourceDTO> terminologyUpdates = new ArrayList<>();
             final List<IntegrationResourceDTO> commentsUpdates = new ArrayList<>();
+            final BitSet dataModelPositions = new BitSet();
             for (final ResourceDTO resource : resources) {
-                final String resourceUri = resource.getUri();
-                if (updatedResourcesMap.keySet().contains(resourceUri)) {
+                final int position = sortedUpdates.positionOf(resource.getUri());
+                if (position >= 0) {
                     switch (resource.getApplication()) {
                         case APPLICATION_DATAMODEL:
-                            dataModelUpdates.add(updatedResourcesMap.get(resourceUri));
+                            dataModelPositions.set(position);
                             break;
                         default:
                             LOG.info("Unknown application type: " + resource.getApplication());
                     }
                 }
             }
-            Collections.sort(codeListUpdates);
-            Collections.sort(dataModelUpdates);
-            Collections.sort(terminologyUpdates);
-            Collections.sort(commentsUpdates);
+            final List<IntegrationResourceDTO> dataModelUpdates = sortedUpdates.select(dataModelPositions);
             UserNotificationDTO userNotificationDto = null;
             if (!codeListUpdates.isEmpty() || !dataModelUpdates.isEmpty() || !terminologyUpdates.isEmpty() || !commentsUpdates.isEmpty()) {
                 userNotificationDto = new UserNotificationDTO(codeListUpdates, dataModelUpdates, terminologyUpdates, commentsUpdates);
@@ -150,17 +531,128 @@ public class NotificationServiceImpl implements NotificationService {
         return null;
     }
 
-    private void sendUserNotifications(final Map<UUID, UserNotificationDTO> userNotifications) {
-        userNotifications.keySet().forEach(userId -> sendSingleUserNotifications(userId, userNotifications.get(userId)));
+    private NotificationRun sendUserNotifications(final UUID runId,
+                                                  final Map<String, IntegrationResourceDTO> updatedResourcesMap,
+                                                  final String subscriptionType,
+                                                  final int shardCount,
+                                                  final int shard) {
+        if (updatedResourcesMap.isEmpty()) {
+            LOG.info("No updated resources, no notifications to send.");
+            final NotificationRun run = new NotificationRun(runId, Collections.emptyMap());
+            run.markCompleted();
+            return run;
+        }
+        final int parallelism = notificationProperties.getParallelism();
+        final Duration completionTimeout = notificationProperties.getCompletionTimeout();
+        LOG.info(String.format("Sending notifications for %d updated resources with parallelism %d.", updatedResourcesMap.size(), parallelism));
+        final NotificationRun run = new NotificationRun(runId, renderResourceFragments(updatedResourcesMap));
+        final SortedUpdates sortedUpdates = new SortedUpdates(updatedResourcesMap.values());
+        final ExecutorService executor = createNotificationExecutor(parallelism);
+        try {
+            userService.streamSubscriptionsByResourceUris(updatedResourcesMap.keySet(), subscriptionType, shardCount, shard, notificationProperties.getPartitionSize(), subscriptions -> {
+                final Map<UUID, UserNotificationDTO> partition = mapUserNotifications(subscriptions, sortedUpdates);
+                if (!partition.isEmpty()) {
+                    final int partitionNumber = run.submitPartition(partition.size());
+                    executor.execute(() -> {
+                        notificationMetrics.partitionStarted();
+                        try {
+                            sendPartitionNotifications(partition, run);
+                        } finally {
+                            notificationMetrics.partitionFinished();
+                        }
+                        LOG.info(String.format("Notification partition %d done (%d/%d partitions completed, %s).", partitionNumber, run.completePartition(), run.getSubmittedPartitions(), run));
+                    });
+                }
+            });
+        } finally {
+            executor.shutdown();
+        }
+        try {
+            final long remainingNanos = completionTimeout.toNanos() - (System.nanoTime() - run.getStartTime());
+            if (!executor.awaitTermination(remainingNanos, TimeUnit.NANOSECONDS)) {
+                final List<Runnable> cancelledPartitions = executor.shutdownNow();
+                LOG.error(String.format("Notification run exceeded completion timeout of %s, cancelled %d partitions (%s).", completionTimeout, cancelledPartitions.size(), run));
+                return run;
+            }
+        } catch (final InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            LOG.error("Notification run interrupted (" + run + ").");
+            return run;
+        }
+        run.markCompleted();
+        LOG.info("Notification run completed (" + run + ").");
+        return run;
+    }
+
+    private void sendPartitionNotifications(final Map<UUID, UserNotificationDTO> partition,
+                                            final NotificationRun run) {
+        final Map<UUID, String> messages = new HashMap<>();
+        for (final Map.Entry<UUID, UserNotificationDTO> entry : partition.entrySet()) {
+            if (Thread.currentThread().isInterrupted()) {
+                LOG.warn("Notification partition interrupted, skipping remaining users.");
+                return;
+            }
+            final UserNotificationDTO userNotificationDto = entry.getValue();
+            messages.put(entry.getKey(), run.getOrRenderBody(createContentKey(userNotificationDto), key -> notificationMetrics.recordRender(() -> constructMessage(userNotificationDto, run.getResourceFragments()))));
+        }
+        try {
+            emailOutboxService.queueMails(messages, run.getRunId());
+            run.notificationsQueued(messages.size());
+            notificationMetrics.recordQueued(messages.values());
+        } catch (final Exception e) {
+            run.notificationsFailed(messages.size());
+            notificationMetrics.queueFailed(messages.size());
+            LOG.error("Queueing notifications failed for " + messages.size() + " users.", e);
+        }
+    }
+
+    private String createContentKey(final UserNotificationDTO userNotificationDto) {
+        final List<String> uris = new ArrayList<>();
+        userNotificationDto.getDatamodelResouces().forEach(resource -> uris.add(resource.getUri()));
+        Collections.sort(uris);
+        return String.join("\n", uris);
+    }
+
+    private ExecutorService createNotificationExecutor(final int parallelism) {
+        return new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(parallelism * 2),
+            new CustomizableThreadFactory("notification-"),
+            (partition, pool) -> {
+                if (pool.isShutdown()) {
+                    throw new RejectedExecutionException("Notification executor is shut down.");
+                }
+                try {
+                    pool.getQueue().put(partition);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RejectedExecutionException("Interrupted while waiting to submit a notification partition.", e);
+                }
+            });
     }
 
     private void sendSingleUserNotifications(final UUID userId,
-                                             final UserNotificationDTO userNotificationDto) {
-        final String message = constructMessage(userNotificationDto);
-        emailService.sendMail(userId, message);
+                                             final UserNotificationDTO userNotificationDto,
+                                             final Map<String, String> resourceFragments) {
+        final String message = notificationMetrics.recordRender(() -> constructMessage(userNotificationDto, resourceFragments));
+        emailOutboxService.queueMail(userId, message);
+        notificationMetrics.recordQueued(Collections.singletonList(message));
     }
 
-    private String constructMessage(final UserNotificationDTO userNotificationDto) {
+    private Map<String, String> renderResourceFragments(final Map<String, IntegrationResourceDTO> updatedResourcesMap) {
+        final Map<String, String> resourceFragments = new HashMap<>();
+        updatedResourcesMap.forEach((uri, resource) -> resourceFragments.put(uri, renderResourceFragment(resource)));
+        return resourceFragments;
+    }
+
+    private String renderResourceFragment(final IntegrationResourceDTO resource) {
+        final StringBuilder builder = new StringBuilder();
+        addResourceToBuilder(true, APPLICATION_DATAMODEL, builder, resource);
+        return builder.toString();
+    }
+
+    private String constructMessage(final UserNotificationDTO userNotificationDto,
+                                    final Map<String, String> resourceFragments) {
         final StringBuilder builder = new StringBuilder();
         builder.append("<body>");
         builder.append("Dear MSCR user,<br/>");
@@ -172,11 +664,11 @@ public class NotificationServiceImpl implements NotificationService {
         	
             builder.append("<h3>Schemas</h3>");
             builder.append("<ul>");
-            addContainerUpdates(APPLICATION_DATAMODEL, builder, datamodelUpdates, "schema");
+            addContainerUpdates(builder, datamodelUpdates, resourceFragments, TYPE_SCHEMA);
             builder.append("</ul>");
             builder.append("<h3>Crosswalks</h3>");
             builder.append("<ul>");
-            addContainerUpdates(APPLICATION_DATAMODEL, builder, datamodelUpdates, "crosswalk");
+            addContainerUpdates(builder, datamodelUpdates, resourceFragments, TYPE_CROSSWALK);
             builder.append("</ul>");
             
         }
@@ -187,21 +679,16 @@ public class NotificationServiceImpl implements NotificationService {
         return builder.toString();
     }
 
-    private void addContainerUpdates(final String applicationIdentifier,
-                                     final StringBuilder builder,
+    private void addContainerUpdates(final StringBuilder builder,
                                      final List<IntegrationResourceDTO> resources,
+                                     final Map<String, String> resourceFragments,
                                      final String resourceType) {
-        resources.stream().filter(new Predicate<IntegrationResourceDTO>() {
-
-			@Override
-			public boolean test(IntegrationResourceDTO t) {
-				return t.getType().equalsIgnoreCase(resourceType);
-			}
-		}).forEach(resource -> {
-			
-            addResourceToBuilder(true, applicationIdentifier, builder, resource);
-            
-        });
+        for (final IntegrationResourceDTO resource : resources) {
+            if (resourceType.equalsIgnoreCase(resource.getType())) {
+                final String fragment = resourceFragments.get(resource.getUri());
+                builder.append(fragment != null ? fragment : renderResourceFragment(resource));
+            }
+        }
     }
 
     private boolean isResourceNew(final IntegrationResourceDTO resource) {
@@ -410,19 +897,32 @@ public class NotificationServiceImpl implements NotificationService {
 
     private List<IntegrationResourceDTO> getUpdatedContainersForAllApplications(final UUID userId) {
         final List<IntegrationResourceDTO> updatedResources = new ArrayList<>();
-        addUpdatedContainersForApplication(APPLICATION_DATAMODEL, updatedResources, userId);
+        addUpdatedContainers(updatedResources, getUpdatedApplicationContainersForUserId(APPLICATION_DATAMODEL, userId));
         return updatedResources;
     }
 
-    private void addUpdatedContainersForApplication(final String applicationIdentifier,
-                                                    final List<IntegrationResourceDTO> updatedResources,
-                                                    final UUID userId) {
-        final List<IntegrationResourceDTO> resources;
-        if (userId != null) {
-            resources = getUpdatedApplicationContainersForUserId(applicationIdentifier, userId);
-        } else {
-            resources = getUpdatedApplicationContainers(applicationIdentifier);
+    private Collection<ChangeWindowDTO> mergeChangeWindows(final List<ChangeWindowDTO> changeWindows) {
+        final Map<String, ChangeWindowDTO> mergedChangeWindows = new LinkedHashMap<>();
+        changeWindows.forEach(changeWindow -> mergedChangeWindows.merge(changeWindow.getApplication(), changeWindow, (merged, window) ->
+            new ChangeWindowDTO(merged.getApplication(),
+                window.getAfter().isBefore(merged.getAfter()) ? window.getAfter() : merged.getAfter(),
+                window.getBefore().isAfter(merged.getBefore()) ? window.getBefore() : merged.getBefore())));
+        return mergedChangeWindows.values();
+    }
+
+    private void streamUpdatedApplicationContainers(final ChangeWindowDTO changeWindow,
+                                                    final Consumer<IntegrationResourceDTO> consumer) {
+        final String applicationIdentifier = changeWindow.getApplication();
+        final Set<String> containerUris = resourceService.getResourceUrisForApplication(applicationIdentifier);
+        if (containerUris != null && !containerUris.isEmpty()) {
+            LOG.info("Streaming containers for: " + applicationIdentifier);
+            final Meta meta = integrationService.streamIntegrationContainers(applicationIdentifier, containerUris, changeWindow, consumer);
+            LOG.info("Streamed " + (meta != null ? meta.getResultCount() : null) + " containers for application: " + applicationIdentifier);
         }
+    }
+
+    private void addUpdatedContainers(final List<IntegrationResourceDTO> updatedResources,
+                                      final List<IntegrationResourceDTO> resources) {
         if (resources != null && !resources.isEmpty()) {
             updatedResources.addAll(resources);
         }
@@ -432,32 +932,32 @@ public class NotificationServiceImpl implements NotificationService {
                                                                                   final UUID userId) {
         final Set<String> containerUris = resourceService.getResourceUrisForApplicationAndUserId(applicationIdentifier, userId);
         if (containerUris != null && !containerUris.isEmpty()) {
-            return getUpdatedApplicationContainersWithUris(applicationIdentifier, containerUris, true);
+            return getUpdatedApplicationContainersWithUris(applicationIdentifier, containerUris, true, null);
         }
         return null;
     }
 
-    private List<IntegrationResourceDTO> getUpdatedApplicationContainers(final String applicationIdentifier) {
-        final Set<String> containerUris = resourceService.getResourceUrisForApplication(applicationIdentifier);
+    private List<IntegrationResourceDTO> getUpdatedApplicationContainers(final ChangeWindowDTO changeWindow) {
+        final Set<String> containerUris = resourceService.getResourceUrisForApplication(changeWindow.getApplication());
         if (containerUris != null && !containerUris.isEmpty()) {
-            return getUpdatedApplicationContainersWithUris(applicationIdentifier, containerUris);
+            return getUpdatedApplicationContainersWithUris(changeWindow.getApplication(), containerUris, false, changeWindow);
         }
         return null;
     }
 
-    private List<IntegrationResourceDTO> getUpdatedApplicationContainersWithUris(final String applicationIdentifier,
-                                                                                 final Set<String> containerUris) {
-        return getUpdatedApplicationContainersWithUris(applicationIdentifier, containerUris, false);
-
-    }
-
     private List<IntegrationResourceDTO> getUpdatedApplicationContainersWithUris(final String applicationIdentifier,
                                                                                  final Set<String> containerUris,
-                                                                                 final boolean getLatest) {
+                                                                                 final boolean getLatest,
+                                                                                 final ChangeWindowDTO changeWindow) {
         LOG.info("Fetching containers for: " + applicationIdentifier);
         final boolean fetchDateRangeChanges = true;
         if (containerUris != null && !containerUris.isEmpty()) {
-            final IntegrationResponseDTO integrationResponse = integrationService.getIntegrationContainers(applicationIdentifier, containerUris, fetchDateRangeChanges, getLatest);
+            final IntegrationResponseDTO integrationResponse;
+            if (changeWindow != null) {
+                integrationResponse = integrationService.getIntegrationContainers(applicationIdentifier, containerUris, changeWindow);
+            } else {
+                integrationResponse = integrationService.getIntegrationContainers(applicationIdentifier, containerUris, fetchDateRangeChanges, getLatest);
+            }
             final List<IntegrationResourceDTO> containers = integrationResponse.getResults();
             if (containers != null && !containers.isEmpty()) {
                 LOG.info("Found " + containers.size() + " for application: " + applicationIdentifier);
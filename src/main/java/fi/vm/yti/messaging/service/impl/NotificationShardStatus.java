@@ -0,0 +1,8 @@
+package fi.vm.yti.messaging.service.impl;
+
+public enum NotificationShardStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
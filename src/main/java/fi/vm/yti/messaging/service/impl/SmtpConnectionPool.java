@@ -0,0 +1,148 @@
+package fi.vm.yti.messaging.service.impl;
+
+import java.util.Date;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.mail.MessagingException;
+import javax.mail.Transport;
+import javax.mail.internet.MimeMessage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+import fi.vm.yti.messaging.configuration.EmailProperties;
+
+@Component
+public class SmtpConnectionPool {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SmtpConnectionPool.class);
+    private static final String DEFAULT_PROTOCOL = "smtp";
+    private static final long IDLE_VALIDATION_MILLIS = 10000;
+
+    private final JavaMailSenderImpl mailSender;
+    private final int maxMessagesPerConnection;
+    private final Semaphore connectionPermits;
+    private final BlockingQueue<PooledTransport> idleTransports;
+    private final AtomicInteger openedConnections;
+    private final TokenBucketRateLimiter rateLimiter;
+
+    @Inject
+    public SmtpConnectionPool(final JavaMailSenderImpl mailSender,
+                              final EmailProperties emailProperties) {
+        this.mailSender = mailSender;
+        this.maxMessagesPerConnection = emailProperties.getSmtpMaxMessagesPerConnection();
+        this.connectionPermits = new Semaphore(emailProperties.getSmtpPoolSize(), true);
+        this.idleTransports = new LinkedBlockingQueue<>();
+        this.openedConnections = new AtomicInteger();
+        if (emailProperties.getSendRatePerSecond() > 0) {
+            final int replicas = emailProperties.getSendReplicas();
+            this.rateLimiter = new TokenBucketRateLimiter(emailProperties.getSendRatePerSecond() / replicas, Math.max(1, emailProperties.getSendBurst() / replicas));
+        } else {
+            this.rateLimiter = null;
+        }
+    }
+
+    public void send(final MimeMessage message) throws MessagingException {
+        try {
+            if (rateLimiter != null) {
+                rateLimiter.acquire();
+            }
+            connectionPermits.acquire();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("Interrupted while waiting for an SMTP connection.", e);
+        }
+        try {
+            final PooledTransport pooledTransport = borrowTransport();
+            try {
+                if (message.getSentDate() == null) {
+                    message.setSentDate(new Date());
+                }
+                message.saveChanges();
+                pooledTransport.transport.sendMessage(message, message.getAllRecipients());
+            } catch (final MessagingException e) {
+                closeTransport(pooledTransport);
+                throw e;
+            }
+            returnTransport(pooledTransport);
+        } finally {
+            connectionPermits.release();
+        }
+    }
+
+    public int getOpenedConnections() {
+        return openedConnections.get();
+    }
+
+    @PreDestroy
+    public void close() {
+        PooledTransport pooledTransport;
+        while ((pooledTransport = idleTransports.poll()) != null) {
+            closeTransport(pooledTransport);
+        }
+    }
+
+    private PooledTransport borrowTransport() throws MessagingException {
+        final PooledTransport pooledTransport = idleTransports.poll();
+        if (pooledTransport != null) {
+            if (System.currentTimeMillis() - pooledTransport.lastUsed < IDLE_VALIDATION_MILLIS || pooledTransport.transport.isConnected()) {
+                return pooledTransport;
+            }
+            closeTransport(pooledTransport);
+        }
+        return connectTransport();
+    }
+
+    private void returnTransport(final PooledTransport pooledTransport) {
+        pooledTransport.messageCount++;
+        pooledTransport.lastUsed = System.currentTimeMillis();
+        if (pooledTransport.messageCount >= maxMessagesPerConnection) {
+            closeTransport(pooledTransport);
+        } else {
+            idleTransports.offer(pooledTransport);
+        }
+    }
+
+    private PooledTransport connectTransport() throws MessagingException {
+        final String protocol = mailSender.getProtocol() != null ? mailSender.getProtocol() : DEFAULT_PROTOCOL;
+        final Transport transport = mailSender.getSession().getTransport(protocol);
+        String username = mailSender.getUsername();
+        String password = mailSender.getPassword();
+        if ("".equals(username)) {
+            username = null;
+            if ("".equals(password)) {
+                password = null;
+            }
+        }
+        transport.connect(mailSender.getHost(), mailSender.getPort(), username, password);
+        LOG.debug("Opened SMTP connection " + openedConnections.incrementAndGet() + " to " + mailSender.getHost());
+        return new PooledTransport(transport);
+    }
+
+    private void closeTransport(final PooledTransport pooledTransport) {
+        try {
+            pooledTransport.transport.close();
+        } catch (final MessagingException e) {
+            LOG.debug("Closing SMTP connection failed: " + e.getMessage());
+        }
+    }
+
+    private static class PooledTransport {
+
+        private final Transport transport;
+        private int messageCount;
+        private long lastUsed;
+
+        private PooledTransport(final Transport transport) {
+            this.transport = transport;
+            this.lastUsed = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package fi.vm.yti.messaging.service.impl;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import fi.vm.yti.messaging.dto.IntegrationResourceDTO;
+
+class SortedUpdates {
+
+    private final List<IntegrationResourceDTO> updates;
+    private final Map<String, Integer> positions;
+
+    SortedUpdates(final Collection<IntegrationResourceDTO> resources) {
+        this.updates = new ArrayList<>(resources);
+        Collections.sort(updates);
+        this.positions = new HashMap<>(updates.size() * 2);
+        for (int i = 0; i < updates.size(); i++) {
+            positions.put(updates.get(i).getUri(), i);
+        }
+    }
+
+    int positionOf(final String uri) {
+        final Integer position = positions.get(uri);
+        return position != null ? position : -1;
+    }
+
+    List<IntegrationResourceDTO> select(final BitSet selectedPositions) {
+        final List<IntegrationResourceDTO> selected = new ArrayList<>(selectedPositions.cardinality());
+        for (int i = selectedPositions.nextSetBit(0); i >= 0; i = selectedPositions.nextSetBit(i + 1)) {
+            selected.add(updates.get(i));
+        }
+        return selected;
+    }
+}
@@ -1,8 +1,10 @@
 package fi.vm.yti.messaging.service.impl;
 
 public enum SubscriptionType {
+    HOURLY,
     DAILY,
     WEEKLY,
     MONTHLY,
-    YEARLY
+    YEARLY,
+    INSTANT
 }
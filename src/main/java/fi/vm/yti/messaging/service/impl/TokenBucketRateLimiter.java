@@ -0,0 +1,46 @@
+package fi.vm.yti.messaging.service.impl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+public class TokenBucketRateLimiter {
+
+    private final double nanosPerPermit;
+    private final double capacity;
+    private final LongSupplier nanoClock;
+    private double availableTokens;
+    private long lastRefill;
+
+    public TokenBucketRateLimiter(final double permitsPerSecond,
+                                  final int burst) {
+        this(permitsPerSecond, burst, System::nanoTime);
+    }
+
+    public TokenBucketRateLimiter(final double permitsPerSecond,
+                                  final int burst,
+                                  final LongSupplier nanoClock) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate limiter needs a positive rate and burst, got " + permitsPerSecond + "/s with burst " + burst);
+        }
+        this.nanosPerPermit = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+        this.capacity = burst;
+        this.nanoClock = nanoClock;
+        this.availableTokens = burst;
+        this.lastRefill = nanoClock.getAsLong();
+    }
+
+    public void acquire() throws InterruptedException {
+        final long waitNanos = reserve();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    public synchronized long reserve() {
+        final long now = nanoClock.getAsLong();
+        availableTokens = Math.min(capacity, availableTokens + (now - lastRefill) / nanosPerPermit);
+        lastRefill = now;
+        availableTokens -= 1;
+        return availableTokens >= 0 ? 0 : (long) Math.ceil(-availableTokens * nanosPerPermit);
+    }
+}
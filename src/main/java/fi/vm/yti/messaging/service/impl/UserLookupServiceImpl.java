@@ -1,10 +1,10 @@
 package fi.vm.yti.messaging.service.impl;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.inject.Inject;
 
@@ -37,7 +37,7 @@ public class UserLookupServiceImpl implements UserLookupService {
                                  final RestTemplate restTemplate) {
         this.groupManagementProperties = groupManagementProperties;
         this.restTemplate = restTemplate;
-        users = new HashMap<>();
+        users = new ConcurrentHashMap<>();
     }
 
     @Scheduled(cron = "0 */5 * * * *")
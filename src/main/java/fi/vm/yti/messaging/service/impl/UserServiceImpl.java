@@ -1,6 +1,7 @@
 package fi.vm.yti.messaging.service.impl;
 
 import java.util.*;
+import java.util.function.Consumer;
 
 import javax.inject.Inject;
 
@@ -43,6 +44,25 @@ public class UserServiceImpl implements UserService {
         return dtoMapperService.mapUsers(userDao.findAll());
     }
 
+    @Transactional(readOnly = true)
+    public boolean hasSubscribers(final String subscriptionType) {
+        return userDao.hasSubscribers(subscriptionType);
+    }
+
+    @Transactional(readOnly = true)
+    public void streamSubscriptionsByResourceUris(final Set<String> resourceUris,
+                                                  final String subscriptionType,
+                                                  final int shardCount,
+                                                  final int shard,
+                                                  final int chunkSize,
+                                                  final Consumer<Map<UUID, Set<ResourceDTO>>> chunkConsumer) {
+        userDao.streamSubscriptionsByResourceUris(resourceUris, subscriptionType, shardCount, shard, chunkSize, chunk -> {
+            final Map<UUID, Set<ResourceDTO>> subscriptions = new LinkedHashMap<>();
+            chunk.forEach((userId, resources) -> subscriptions.put(userId, dtoMapperService.mapResources(resources)));
+            chunkConsumer.accept(subscriptions);
+        });
+    }
+
     @Transactional
     public UserDTO setSubscriptionType(final UUID userId,
                                        final String subscriptionType) {
@@ -0,0 +1,3 @@
+-- Indexes for resolving subscribers of updated resources
+CREATE INDEX user_resource_resource_uri_idx ON user_resource (resource_uri);
+CREATE INDEX user_resource_user_id_idx ON user_resource (user_id);
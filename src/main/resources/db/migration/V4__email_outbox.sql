@@ -0,0 +1,17 @@
+-- Outbox for rendered notification e-mails, drained by the e-mail dispatcher
+
+CREATE TABLE email_outbox
+(
+    id           uuid UNIQUE                 NOT NULL,
+    user_id      uuid                        NOT NULL,
+    body         text                        NOT NULL,
+    status       text                        NOT NULL,
+    attempts     integer                     NOT NULL DEFAULT 0,
+    next_attempt timestamp without time zone NOT NULL DEFAULT NOW(),
+    last_error   text,
+    created      timestamp without time zone NOT NULL DEFAULT NOW(),
+    sent         timestamp without time zone,
+    CONSTRAINT email_outbox_pkey PRIMARY KEY (id)
+);
+
+CREATE INDEX email_outbox_next_attempt_idx ON email_outbox (next_attempt) WHERE status IN ('PENDING', 'SENDING');
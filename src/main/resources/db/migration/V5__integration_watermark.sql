@@ -0,0 +1,9 @@
+-- Last successfully processed change timestamp per integration application
+
+CREATE TABLE integration_watermark
+(
+    application text UNIQUE                 NOT NULL,
+    watermark   timestamp with time zone    NOT NULL,
+    modified    timestamp without time zone NOT NULL DEFAULT NOW(),
+    CONSTRAINT integration_watermark_pkey PRIMARY KEY (application)
+);
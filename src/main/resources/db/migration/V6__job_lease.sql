@@ -0,0 +1,11 @@
+-- Leases that make scheduled jobs run on a single node at a time
+
+CREATE TABLE job_lease
+(
+    job_name text UNIQUE                 NOT NULL,
+    owner    text                        NOT NULL,
+    acquired timestamp without time zone NOT NULL,
+    expires  timestamp without time zone NOT NULL,
+    released timestamp without time zone,
+    CONSTRAINT job_lease_pkey PRIMARY KEY (job_name)
+);
@@ -0,0 +1,42 @@
+-- Sharded notification runs, claimed and processed by all replicas
+
+CREATE TABLE notification_run
+(
+    id          uuid UNIQUE                 NOT NULL,
+    status      text                        NOT NULL,
+    shard_count integer                     NOT NULL,
+    created     timestamp without time zone NOT NULL DEFAULT NOW(),
+    completed   timestamp without time zone,
+    CONSTRAINT notification_run_pkey PRIMARY KEY (id)
+);
+
+CREATE TABLE notification_run_window
+(
+    id            uuid UNIQUE              NOT NULL,
+    run_id        uuid                     NOT NULL REFERENCES notification_run (id) ON DELETE CASCADE,
+    application   text                     NOT NULL,
+    window_after  timestamp with time zone NOT NULL,
+    window_before timestamp with time zone NOT NULL,
+    CONSTRAINT notification_run_window_pkey PRIMARY KEY (id)
+);
+
+CREATE INDEX notification_run_window_run_id_idx ON notification_run_window (run_id);
+
+CREATE TABLE notification_shard
+(
+    id            uuid UNIQUE                 NOT NULL,
+    run_id        uuid                        NOT NULL REFERENCES notification_run (id) ON DELETE CASCADE,
+    shard         integer                     NOT NULL,
+    status        text                        NOT NULL,
+    owner         text,
+    lease_expires timestamp without time zone,
+    attempts      integer                     NOT NULL DEFAULT 0,
+    matched_users integer                     NOT NULL DEFAULT 0,
+    queued        integer                     NOT NULL DEFAULT 0,
+    failed        integer                     NOT NULL DEFAULT 0,
+    completed     timestamp without time zone,
+    CONSTRAINT notification_shard_pkey PRIMARY KEY (id),
+    CONSTRAINT notification_shard_run_shard_key UNIQUE (run_id, shard)
+);
+
+CREATE INDEX notification_shard_open_idx ON notification_shard (run_id) WHERE status IN ('PENDING', 'RUNNING');
@@ -0,0 +1,5 @@
+-- Link queued e-mails to the notification run that produced them
+
+ALTER TABLE email_outbox ADD COLUMN run_id uuid;
+
+CREATE INDEX email_outbox_run_id_idx ON email_outbox (run_id) WHERE run_id IS NOT NULL;
@@ -0,0 +1,5 @@
+-- Per-frequency change windows in notification runs and an index for selecting users by frequency
+
+ALTER TABLE notification_run_window ADD COLUMN subscription_type text NOT NULL DEFAULT 'DAILY';
+
+CREATE INDEX user_subscription_type_idx ON "user" (UPPER(subscription_type));
@@ -0,0 +1,42 @@
+package fi.vm.yti.messaging.service;
+
+import fi.vm.yti.messaging.service.impl.DigestFrequency;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DigestFrequencyTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Europe/Helsinki");
+    private static final int DIGEST_HOUR = 7;
+
+    @Test
+    public void dailyIsDueOnceAfterDigestHour() {
+        ZonedDateTime wednesdayMorning = ZonedDateTime.of(2024, 5, 15, 7, 0, 5, 0, ZONE);
+        ZonedDateTime yesterdaysRun = wednesdayMorning.minusDays(1);
+
+        assertTrue(DigestFrequency.DAILY.isDue(yesterdaysRun.toInstant(), wednesdayMorning, DIGEST_HOUR));
+        assertFalse(DigestFrequency.DAILY.isDue(wednesdayMorning.toInstant(), wednesdayMorning.plusHours(1), DIGEST_HOUR));
+        assertFalse(DigestFrequency.DAILY.isDue(yesterdaysRun.toInstant(), wednesdayMorning.minusHours(1), DIGEST_HOUR));
+    }
+
+    @Test
+    public void weeklyIsDueOnMondays() {
+        ZonedDateTime lastMonday = ZonedDateTime.of(2024, 5, 13, 7, 0, 5, 0, ZONE);
+
+        assertFalse(DigestFrequency.WEEKLY.isDue(lastMonday.toInstant(), lastMonday.plusDays(6), DIGEST_HOUR));
+        assertTrue(DigestFrequency.WEEKLY.isDue(lastMonday.toInstant(), lastMonday.plusDays(7), DIGEST_HOUR));
+    }
+
+    @Test
+    public void hourlyIsDueEveryHourAndMissingWatermarkIsAlwaysDue() {
+        ZonedDateTime now = ZonedDateTime.of(2024, 5, 15, 13, 0, 1, 0, ZONE);
+
+        assertTrue(DigestFrequency.HOURLY.isDue(now.minusHours(1).toInstant(), now, DIGEST_HOUR));
+        assertFalse(DigestFrequency.HOURLY.isDue(now.toInstant(), now.plusMinutes(30), DIGEST_HOUR));
+        assertTrue(DigestFrequency.MONTHLY.isDue(null, now, DIGEST_HOUR));
+    }
+}
@@ -0,0 +1,80 @@
+package fi.vm.yti.messaging.service;
+
+import fi.vm.yti.messaging.dto.IntegrationResourceDTO;
+import fi.vm.yti.messaging.service.impl.IntegrationChunkStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntegrationChunkStreamTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final Map<String, CountDownLatch> consumed = new ConcurrentHashMap<>();
+    private final List<String> uris = Collections.synchronizedList(new ArrayList<>());
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void resourcesReachTheConsumerWhileTheirChunkIsStillBeingFetched() {
+        final IntegrationChunkStream chunkStream = new IntegrationChunkStream((chunkIndex, consumer) -> {
+            emitAndAwaitConsumer(consumer, "chunk-" + chunkIndex + "-a");
+            emitAndAwaitConsumer(consumer, "chunk-" + chunkIndex + "-b");
+        }, executor, 3, 1);
+
+        assertEquals(6, chunkStream.forEach(this::consume));
+        assertEquals(List.of("chunk-0-a", "chunk-0-b", "chunk-1-a", "chunk-1-b", "chunk-2-a", "chunk-2-b"), uris);
+    }
+
+    @Test
+    public void failedChunkFailsTheStreamAfterPrecedingChunks() {
+        final IntegrationChunkStream chunkStream = new IntegrationChunkStream((chunkIndex, consumer) -> {
+            if (chunkIndex == 1) {
+                throw new IllegalStateException("chunk failed");
+            }
+            consumer.accept(resource("chunk-" + chunkIndex));
+        }, executor, 3, 10);
+
+        assertEquals("chunk failed", assertThrows(IllegalStateException.class, () -> chunkStream.forEach(this::consume)).getMessage());
+        assertEquals(List.of("chunk-0"), uris);
+    }
+
+    private void emitAndAwaitConsumer(final Consumer<IntegrationResourceDTO> consumer,
+                                      final String uri) {
+        consumer.accept(resource(uri));
+        try {
+            assertTrue(latch(uri).await(5, TimeUnit.SECONDS), "Consumer did not receive " + uri + " before its chunk completed.");
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void consume(final IntegrationResourceDTO resource) {
+        uris.add(resource.getUri());
+        latch(resource.getUri()).countDown();
+    }
+
+    private CountDownLatch latch(final String uri) {
+        return consumed.computeIfAbsent(uri, key -> new CountDownLatch(1));
+    }
+
+    private static IntegrationResourceDTO resource(final String uri) {
+        final IntegrationResourceDTO resource = new IntegrationResourceDTO();
+        resource.setUri(uri);
+        return resource;
+    }
+}
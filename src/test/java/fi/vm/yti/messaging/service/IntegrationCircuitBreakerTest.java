@@ -0,0 +1,114 @@
+package fi.vm.yti.messaging.service;
+
+import fi.vm.yti.messaging.exception.IntegrationUnavailableException;
+import fi.vm.yti.messaging.service.impl.IntegrationCircuitBreaker;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntegrationCircuitBreakerTest {
+
+    private static final long OPEN_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    public void circuitOpensAfterConsecutiveFailuresAndClosesAfterSuccessfulProbe() {
+        IntegrationCircuitBreaker circuitBreaker = new IntegrationCircuitBreaker("datamodel", 3, OPEN_NANOS, 4, 0, clock::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(ResourceAccessException.class, () -> circuitBreaker.call(this::fail));
+        }
+        assertEquals(IntegrationCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(assertThrows(IntegrationUnavailableException.class, () -> circuitBreaker.call(() -> "ok")).isRetryable());
+
+        clock.addAndGet(OPEN_NANOS);
+        assertEquals("ok", circuitBreaker.call(() -> "ok"));
+        assertEquals(IntegrationCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(1, circuitBreaker.getRejectedCalls());
+    }
+
+    @Test
+    public void failedProbeReopensCircuit() {
+        IntegrationCircuitBreaker circuitBreaker = new IntegrationCircuitBreaker("datamodel", 1, OPEN_NANOS, 4, 0, clock::get);
+
+        assertThrows(ResourceAccessException.class, () -> circuitBreaker.call(this::fail));
+        clock.addAndGet(OPEN_NANOS);
+        assertThrows(ResourceAccessException.class, () -> circuitBreaker.call(this::fail));
+
+        assertEquals(IntegrationCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertThrows(IntegrationUnavailableException.class, () -> circuitBreaker.call(() -> "ok"));
+    }
+
+    @Test
+    public void slowCallSucceedingAfterCircuitOpensDoesNotCloseIt() throws Exception {
+        IntegrationCircuitBreaker circuitBreaker = new IntegrationCircuitBreaker("datamodel", 1, OPEN_NANOS, 4, 0, clock::get);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> slow = executor.submit(() -> circuitBreaker.call(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "slow";
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            assertThrows(ResourceAccessException.class, () -> circuitBreaker.call(this::fail));
+            assertEquals(IntegrationCircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+            release.countDown();
+            assertEquals("slow", slow.get(5, TimeUnit.SECONDS));
+
+            assertEquals(IntegrationCircuitBreaker.State.OPEN, circuitBreaker.getState());
+            assertThrows(IntegrationUnavailableException.class, () -> circuitBreaker.call(() -> "ok"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void bulkheadRejectsCallsBeyondConcurrencyLimit() throws Exception {
+        IntegrationCircuitBreaker circuitBreaker = new IntegrationCircuitBreaker("datamodel", 3, OPEN_NANOS, 1, 0, clock::get);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> blocked = executor.submit(() -> circuitBreaker.call(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "slow";
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            IntegrationUnavailableException rejection = assertThrows(IntegrationUnavailableException.class, () -> circuitBreaker.call(() -> "ok"));
+            assertTrue(rejection.isRetryable());
+
+            release.countDown();
+            assertEquals("slow", blocked.get(5, TimeUnit.SECONDS));
+            assertEquals("ok", circuitBreaker.call(() -> "ok"));
+            assertEquals(IntegrationCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private String fail() {
+        throw new ResourceAccessException("Connection refused");
+    }
+}
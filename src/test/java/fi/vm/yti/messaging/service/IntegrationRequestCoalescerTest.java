@@ -0,0 +1,110 @@
+package fi.vm.yti.messaging.service;
+
+import fi.vm.yti.messaging.service.impl.IntegrationRequestCoalescer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntegrationRequestCoalescerTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final IntegrationRequestCoalescer coalescer = new IntegrationRequestCoalescer(meterRegistry);
+
+    @Test
+    public void concurrentIdenticalRequestsShareOneUpstreamCall() throws Exception {
+        final AtomicInteger upstreamCalls = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<String> first = executor.submit(() -> coalescer.execute("datamodel#[a]", () -> {
+                upstreamCalls.incrementAndGet();
+                started.countDown();
+                await(release);
+                return "labels";
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            final Future<String> second = executor.submit(() -> coalescer.execute("datamodel#[a]", () -> {
+                upstreamCalls.incrementAndGet();
+                return "other";
+            }));
+            awaitCoalesced();
+            release.countDown();
+
+            assertEquals("labels", first.get(5, TimeUnit.SECONDS));
+            assertEquals("labels", second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, upstreamCalls.get());
+            assertEquals(1, count("issued"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void coalescedCallersDoNotShareMutableResults() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<List<String>> first = executor.submit(() -> coalescer.execute("terminology#[a]", () -> {
+                started.countDown();
+                await(release);
+                return new ArrayList<>(List.of("a", "b"));
+            }, ArrayList::new));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            final Future<List<String>> second = executor.submit(() -> coalescer.execute("terminology#[a]", () -> new ArrayList<>(List.of("other")), ArrayList::new));
+            awaitCoalesced();
+            release.countDown();
+
+            final List<String> firstResult = first.get(5, TimeUnit.SECONDS);
+            final List<String> secondResult = second.get(5, TimeUnit.SECONDS);
+            assertNotSame(firstResult, secondResult);
+            firstResult.remove("a");
+            assertEquals(List.of("a", "b"), secondResult);
+            assertEquals(1, count("issued"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void completedRequestIsNotReused() {
+        assertEquals("first", coalescer.execute("codelist#[a]", () -> "first"));
+        assertEquals("second", coalescer.execute("codelist#[a]", () -> "second"));
+        assertEquals(2, count("issued"));
+        assertEquals(0, count("coalesced"));
+    }
+
+    private void awaitCoalesced() throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count("coalesced") < 1) {
+            if (System.nanoTime() > deadline) {
+                fail("Second request did not join the request in flight within 5 seconds.");
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    private double count(final String result) {
+        return meterRegistry.get("integration.requests").tag("result", result).counter().count();
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package fi.vm.yti.messaging.service;
+
+import fi.vm.yti.messaging.dto.IntegrationResourceDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntegrationResourceOrderingTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(IntegrationResourceOrderingTest.class);
+    private static final int RESOURCE_COUNT = 2000;
+    private static final int BENCHMARK_RESOURCE_COUNT = 20000;
+    private static final int BENCHMARK_ROUNDS = 5;
+
+    private static final Comparator<IntegrationResourceDTO> LABEL_LOOKUP_COMPARATOR = (a, b) -> {
+        if (a.getPrefLabel() == null && b.getPrefLabel() == null) {
+            return 0;
+        }
+        if (a.getPrefLabel("fi") != null && b.getPrefLabel("fi") != null) {
+            return a.getPrefLabel("fi").compareToIgnoreCase(b.getPrefLabel("fi"));
+        } else if (a.getPrefLabel("und") != null && b.getPrefLabel("und") != null) {
+            return a.getPrefLabel("und").compareToIgnoreCase(b.getPrefLabel("und"));
+        }
+        return 0;
+    };
+
+    @Test
+    public void resourcesAreSortedByFinnishCollation() {
+        List<IntegrationResourceDTO> resources = new ArrayList<>(Arrays.asList(
+            createResource("fi", "Öljy"),
+            createResource("en", "beta"),
+            createResource("fi", "Äänestys"),
+            createResource(null, null),
+            createResource("fi", "Alpha"),
+            createResource("sv", "Zeta"),
+            createResource("fi", "Ångström")));
+
+        Collections.sort(resources);
+
+        assertEquals(Arrays.asList("Alpha", "beta", "Zeta", "Ångström", "Äänestys", "Öljy", null),
+            resources.stream().map(resource -> resource.getPrefLabel("fi")).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void cachedSortKeysGiveConsistentOrdering() {
+        Random random = new Random(42);
+        List<IntegrationResourceDTO> resources = createResources(RESOURCE_COUNT, random);
+
+        List<IntegrationResourceDTO> firstSort = new ArrayList<>(resources);
+        Collections.shuffle(firstSort, random);
+        Collections.sort(firstSort);
+        for (int i = 1; i < firstSort.size(); i++) {
+            assertTrue(firstSort.get(i - 1).compareTo(firstSort.get(i)) <= 0);
+        }
+
+        List<IntegrationResourceDTO> secondSort = new ArrayList<>(resources);
+        Collections.shuffle(secondSort, random);
+        Collections.sort(secondSort);
+        for (int i = 0; i < firstSort.size(); i++) {
+            assertEquals(0, firstSort.get(i).compareTo(secondSort.get(i)));
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    public void compareSortKeyAndLabelLookupTimings() {
+        Random random = new Random(42);
+        List<IntegrationResourceDTO> resources = createResources(BENCHMARK_RESOURCE_COUNT, random);
+
+        long lookupNanos = Long.MAX_VALUE;
+        long sortKeyNanos = Long.MAX_VALUE;
+        for (int round = 0; round < BENCHMARK_ROUNDS; round++) {
+            List<IntegrationResourceDTO> lookupSorted = new ArrayList<>(resources);
+            Collections.shuffle(lookupSorted, random);
+            long lookupStart = System.nanoTime();
+            lookupSorted.sort(LABEL_LOOKUP_COMPARATOR);
+            lookupNanos = Math.min(lookupNanos, System.nanoTime() - lookupStart);
+
+            List<IntegrationResourceDTO> sortKeySorted = new ArrayList<>(resources);
+            Collections.shuffle(sortKeySorted, random);
+            long sortKeyStart = System.nanoTime();
+            Collections.sort(sortKeySorted);
+            sortKeyNanos = Math.min(sortKeyNanos, System.nanoTime() - sortKeyStart);
+        }
+
+        LOG.info(String.format("Sorting %d resources, best of %d rounds: label lookups %.1f ms, cached sort keys %.1f ms.",
+            BENCHMARK_RESOURCE_COUNT, BENCHMARK_ROUNDS, lookupNanos / 1e6, sortKeyNanos / 1e6));
+    }
+
+    private List<IntegrationResourceDTO> createResources(int count, Random random) {
+        List<IntegrationResourceDTO> resources = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            resources.add(createResource(random.nextBoolean() ? "fi" : "en", "Tietomalli " + Integer.toString(random.nextInt(1000000), 36)));
+        }
+        return resources;
+    }
+
+    private IntegrationResourceDTO createResource(String language, String label) {
+        IntegrationResourceDTO resource = new IntegrationResourceDTO();
+        Map<String, String> prefLabel = new HashMap<>();
+        if (language != null) {
+            prefLabel.put(language, label);
+        }
+        resource.setPrefLabel(prefLabel);
+        return resource;
+    }
+}
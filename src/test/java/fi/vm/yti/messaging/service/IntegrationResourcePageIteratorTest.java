@@ -0,0 +1,88 @@
+package fi.vm.yti.messaging.service;
+
+import fi.vm.yti.messaging.api.Meta;
+import fi.vm.yti.messaging.dto.IntegrationResourceDTO;
+import fi.vm.yti.messaging.dto.IntegrationResponseDTO;
+import fi.vm.yti.messaging.service.impl.IntegrationResourcePageIterator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntegrationResourcePageIteratorTest {
+
+    private static final long FAST_PAGE_TARGET_NANOS = Long.MAX_VALUE;
+    private static final long SLOW_PAGE_TARGET_NANOS = 0;
+
+    private final List<Integer> requestedPageSizes = new ArrayList<>();
+
+    @Test
+    public void cappedPagesWithoutTotalResultsAreNotTruncated() {
+        IntegrationResourcePageIterator iterator = createIterator(1000, 50, false, FAST_PAGE_TARGET_NANOS);
+
+        assertEquals(1000, collectUris(iterator).size());
+        assertEquals(50, iterator.getPageSize());
+        assertEquals(Integer.valueOf(80), requestedPageSizes.get(3));
+        assertEquals(Integer.valueOf(50), requestedPageSizes.get(4));
+    }
+
+    @Test
+    public void shortLastPageWithoutTotalResultsEndsIteration() {
+        IntegrationResourcePageIterator iterator = createIterator(100, Integer.MAX_VALUE, false, FAST_PAGE_TARGET_NANOS);
+
+        assertEquals(100, collectUris(iterator).size());
+        assertEquals(List.of(10, 20, 40, 80), requestedPageSizes);
+    }
+
+    @Test
+    public void totalResultsEndIterationWithoutAnExtraRequest() {
+        IntegrationResourcePageIterator iterator = createIterator(70, 50, true, FAST_PAGE_TARGET_NANOS);
+
+        assertEquals(70, collectUris(iterator).size());
+        assertEquals(3, iterator.getFetchedPages());
+        assertEquals(List.of(10, 20, 40), requestedPageSizes);
+    }
+
+    @Test
+    public void slowPagesKeepTheInitialPageSize() {
+        IntegrationResourcePageIterator iterator = createIterator(35, Integer.MAX_VALUE, false, SLOW_PAGE_TARGET_NANOS);
+
+        assertEquals(35, collectUris(iterator).size());
+        assertEquals(List.of(10, 10, 10, 10), requestedPageSizes);
+        assertEquals(10, iterator.getPageSize());
+    }
+
+    private IntegrationResourcePageIterator createIterator(final int resourceCount,
+                                                           final int serverPageCap,
+                                                           final boolean includeTotalResults,
+                                                           final long targetPageNanos) {
+        return new IntegrationResourcePageIterator((from, pageSize) -> {
+            requestedPageSizes.add(pageSize);
+            List<IntegrationResourceDTO> results = new ArrayList<>();
+            for (int i = from; i < Math.min(resourceCount, from + Math.min(pageSize, serverPageCap)); i++) {
+                IntegrationResourceDTO resource = new IntegrationResourceDTO();
+                resource.setUri("http://uri.suomi.fi/datamodel/ns/resource-" + i);
+                results.add(resource);
+            }
+            Meta meta = new Meta();
+            meta.setResultCount(results.size());
+            if (includeTotalResults) {
+                meta.setTotalResults(resourceCount);
+            }
+            IntegrationResponseDTO response = new IntegrationResponseDTO();
+            response.setMeta(meta);
+            response.setResults(results);
+            return response;
+        }, Runnable::run, 10, 1000, targetPageNanos);
+    }
+
+    private static Set<String> collectUris(final IntegrationResourcePageIterator iterator) {
+        Set<String> uris = new LinkedHashSet<>();
+        iterator.forEachRemaining(resource -> assertTrue(uris.add(resource.getUri())));
+        return uris;
+    }
+}
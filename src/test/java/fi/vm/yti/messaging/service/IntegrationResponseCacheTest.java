@@ -0,0 +1,159 @@
+package fi.vm.yti.messaging.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import fi.vm.yti.messaging.configuration.CodelistProperties;
+import fi.vm.yti.messaging.configuration.CommentsProperties;
+import fi.vm.yti.messaging.configuration.DataModelProperties;
+import fi.vm.yti.messaging.configuration.IntegrationClientProperties;
+import fi.vm.yti.messaging.configuration.TerminologyProperties;
+import fi.vm.yti.messaging.dto.IntegrationResponseDTO;
+import fi.vm.yti.messaging.service.impl.IntegrationCircuitBreakers;
+import fi.vm.yti.messaging.service.impl.IntegrationRequestCoalescer;
+import fi.vm.yti.messaging.service.impl.IntegrationResponseCache;
+import fi.vm.yti.messaging.service.impl.IntegrationServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static fi.vm.yti.messaging.api.ApiConstants.APPLICATION_DATAMODEL;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntegrationResponseCacheTest {
+
+    private static final String LAST_MODIFIED = "Wed, 14 Oct 2026 08:00:00 GMT";
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<HttpExchangeRecord> requests = Collections.synchronizedList(new ArrayList<>());
+    private volatile String version = "v1";
+    private HttpServer server;
+    private IntegrationServiceImpl integrationService;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        integrationService.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    public void unchangedResponseIsRevalidatedAndServedFromCache() {
+        integrationService = createIntegrationService(500);
+
+        assertEquals("label v1", fetchLabel("a"));
+        assertNull(lastRequest().ifNoneMatch);
+
+        assertEquals("label v1", fetchLabel("a"));
+        assertEquals("\"v1\"", lastRequest().ifNoneMatch);
+        assertEquals(LAST_MODIFIED, lastRequest().ifModifiedSince);
+        assertEquals(304, lastRequest().status);
+
+        version = "v2";
+        assertEquals("label v2", fetchLabel("a"));
+        assertEquals("\"v1\"", lastRequest().ifNoneMatch);
+        assertEquals(200, lastRequest().status);
+
+        assertEquals(1, count("miss"));
+        assertEquals(1, count("hit"));
+        assertEquals(1, count("changed"));
+    }
+
+    @Test
+    public void leastRecentlyUsedResponseIsEvicted() {
+        integrationService = createIntegrationService(2);
+
+        fetchLabel("a");
+        fetchLabel("b");
+        fetchLabel("a");
+        fetchLabel("c");
+        assertEquals("\"v1\"", requests.get(2).ifNoneMatch);
+
+        fetchLabel("a");
+        assertEquals("\"v1\"", lastRequest().ifNoneMatch);
+        fetchLabel("b");
+        assertNull(lastRequest().ifNoneMatch);
+
+        assertEquals(4, count("miss"));
+        assertEquals(2, count("hit"));
+    }
+
+    private String fetchLabel(final String uri) {
+        final IntegrationResponseDTO response = integrationService.getIntegrationContainers(APPLICATION_DATAMODEL, Set.of(uri));
+        return response.getResults().get(0).getPrefLabel().get("fi");
+    }
+
+    private HttpExchangeRecord lastRequest() {
+        return requests.get(requests.size() - 1);
+    }
+
+    private double count(final String result) {
+        return meterRegistry.get("integration.cache.requests").tag("result", result).counter().count();
+    }
+
+    private IntegrationServiceImpl createIntegrationService(final int maxEntries) {
+        final DataModelProperties dataModelProperties = new DataModelProperties();
+        dataModelProperties.setPublicUrl("http://localhost:" + server.getAddress().getPort());
+        final IntegrationClientProperties integrationClientProperties = new IntegrationClientProperties();
+        integrationClientProperties.setResponseCacheMaxEntries(maxEntries);
+        return new IntegrationServiceImpl(new CodelistProperties(), dataModelProperties, new TerminologyProperties(), new CommentsProperties(),
+                integrationClientProperties, new RestTemplate(),
+                new IntegrationResponseCache(integrationClientProperties, meterRegistry),
+                new IntegrationCircuitBreakers(integrationClientProperties, meterRegistry),
+                new IntegrationRequestCoalescer(meterRegistry));
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        final String eTag = "\"" + version + "\"";
+        final String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        final int status = eTag.equals(ifNoneMatch) ? 304 : 200;
+        requests.add(new HttpExchangeRecord(ifNoneMatch, exchange.getRequestHeaders().getFirst("If-Modified-Since"), status));
+        exchange.getResponseHeaders().add("ETag", eTag);
+        exchange.getResponseHeaders().add("Last-Modified", LAST_MODIFIED);
+        if (status == 304) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        final byte[] body = ("{\"meta\":{\"code\":200,\"resultCount\":1},\"results\":[{\"uri\":\"http://uri.suomi.fi/datamodel/ns/test\",\"prefLabel\":{\"fi\":\"label " + version + "\"}}]}").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    private static class HttpExchangeRecord {
+
+        private final String ifNoneMatch;
+        private final String ifModifiedSince;
+        private final int status;
+
+        private HttpExchangeRecord(final String ifNoneMatch,
+                                   final String ifModifiedSince,
+                                   final int status) {
+            this.ifNoneMatch = ifNoneMatch;
+            this.ifModifiedSince = ifModifiedSince;
+            this.status = status;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package fi.vm.yti.messaging.service;
+
+import fi.vm.yti.messaging.configuration.EmailProperties;
+import fi.vm.yti.messaging.service.impl.SmtpConnectionPool;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SmtpConnectionPoolTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SmtpConnectionPoolTest.class);
+    private static final int MESSAGE_COUNT = 40;
+    private static final int POOL_SIZE = 4;
+    private static final long HANDSHAKE_DELAY_MILLIS = 20;
+
+    @Test
+    public void pooledConnectionsAreReusedAcrossMessages() throws Exception {
+        try (StubSmtpServer server = new StubSmtpServer(HANDSHAKE_DELAY_MILLIS)) {
+            JavaMailSenderImpl mailSender = createMailSender(server.getPort());
+
+            long unpooledStart = System.nanoTime();
+            for (int i = 0; i < MESSAGE_COUNT; i++) {
+                mailSender.send(createMessage(mailSender, i));
+            }
+            long unpooledNanos = System.nanoTime() - unpooledStart;
+            int unpooledConnections = server.getConnectionCount();
+
+            SmtpConnectionPool pool = new SmtpConnectionPool(mailSender, createEmailProperties());
+            ExecutorService executor = Executors.newFixedThreadPool(POOL_SIZE);
+            long pooledStart = System.nanoTime();
+            List<Future<?>> sends = new ArrayList<>();
+            for (int i = 0; i < MESSAGE_COUNT; i++) {
+                MimeMessage message = createMessage(mailSender, i);
+                sends.add(executor.submit(() -> {
+                    pool.send(message);
+                    return null;
+                }));
+            }
+            for (Future<?> send : sends) {
+                send.get(30, TimeUnit.SECONDS);
+            }
+            long pooledNanos = System.nanoTime() - pooledStart;
+            executor.shutdown();
+            pool.close();
+            int pooledConnections = server.getConnectionCount() - unpooledConnections;
+
+            LOG.info(String.format("Unpooled: %.1f messages/s over %d connections, pooled: %.1f messages/s over %d connections.",
+                    MESSAGE_COUNT / (unpooledNanos / 1e9), unpooledConnections,
+                    MESSAGE_COUNT / (pooledNanos / 1e9), pooledConnections));
+
+            assertEquals(2 * MESSAGE_COUNT, server.getMessageCount());
+            assertEquals(MESSAGE_COUNT, unpooledConnections);
+            assertTrue(pooledConnections <= POOL_SIZE);
+            assertEquals(pooledConnections, pool.getOpenedConnections());
+        }
+    }
+
+    @Test
+    public void connectionIsRecycledAfterMaxMessages() throws Exception {
+        try (StubSmtpServer server = new StubSmtpServer(0)) {
+            JavaMailSenderImpl mailSender = createMailSender(server.getPort());
+            EmailProperties emailProperties = createEmailProperties();
+            emailProperties.setSmtpMaxMessagesPerConnection(5);
+            SmtpConnectionPool pool = new SmtpConnectionPool(mailSender, emailProperties);
+
+            for (int i = 0; i < 12; i++) {
+                pool.send(createMessage(mailSender, i));
+            }
+            pool.close();
+
+            assertEquals(12, server.getMessageCount());
+            assertEquals(3, pool.getOpenedConnections());
+        }
+    }
+
+    private EmailProperties createEmailProperties() {
+        EmailProperties emailProperties = new EmailProperties();
+        emailProperties.setSmtpPoolSize(POOL_SIZE);
+        emailProperties.setSendRatePerSecond(0);
+        return emailProperties;
+    }
+
+    private JavaMailSenderImpl createMailSender(int port) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(port);
+        return mailSender;
+    }
+
+    private MimeMessage createMessage(JavaMailSenderImpl mailSender, int index) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        message.setRecipient(Message.RecipientType.TO, new InternetAddress("user" + index + "@example.org"));
+        message.setFrom(new InternetAddress("admin@example.org"));
+        message.setSubject("Test " + index);
+        message.setContent("<body>Test " + index + "</body>", "text/html; charset=UTF-8");
+        return message;
+    }
+
+    private static class StubSmtpServer implements AutoCloseable {
+
+        private final ServerSocket serverSocket;
+        private final long handshakeDelayMillis;
+        private final ExecutorService executor = Executors.newCachedThreadPool();
+        private final AtomicInteger connectionCount = new AtomicInteger();
+        private final AtomicInteger messageCount = new AtomicInteger();
+
+        StubSmtpServer(long handshakeDelayMillis) throws IOException {
+            this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            this.handshakeDelayMillis = handshakeDelayMillis;
+            executor.execute(this::acceptConnections);
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        int getConnectionCount() {
+            return connectionCount.get();
+        }
+
+        int getMessageCount() {
+            return messageCount.get();
+        }
+
+        private void acceptConnections() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    connectionCount.incrementAndGet();
+                    executor.execute(() -> handleConnection(socket));
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void handleConnection(Socket socket) {
+            try (Socket s = socket;
+                 BufferedReader reader = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.US_ASCII))) {
+                OutputStream out = s.getOutputStream();
+                Thread.sleep(handshakeDelayMillis);
+                reply(out, "220 localhost ESMTP stub");
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String command = line.length() >= 4 ? line.substring(0, 4).toUpperCase() : line.toUpperCase();
+                    switch (command) {
+                        case "EHLO":
+                            reply(out, "250-localhost");
+                            reply(out, "250 8BITMIME");
+                            break;
+                        case "DATA":
+                            reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                            while ((line = reader.readLine()) != null && !line.equals(".")) {
+                                // Discard message content
+                            }
+                            messageCount.incrementAndGet();
+                            reply(out, "250 OK");
+                            break;
+                        case "QUIT":
+                            reply(out, "221 Bye");
+                            return;
+                        default:
+                            reply(out, "250 OK");
+                    }
+                }
+            } catch (IOException | InterruptedException e) {
+                // Connection closed by client
+            }
+        }
+
+        private void reply(OutputStream out, String line) throws IOException {
+            out.write((line + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+            executor.shutdownNow();
+        }
+    }
+}
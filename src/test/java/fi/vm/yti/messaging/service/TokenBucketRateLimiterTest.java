@@ -0,0 +1,46 @@
+package fi.vm.yti.messaging.service;
+
+import fi.vm.yti.messaging.service.impl.TokenBucketRateLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenBucketRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    public void burstIsServedWithoutWaiting() {
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(10, 5, clock::get);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, rateLimiter.reserve());
+        }
+        assertTrue(rateLimiter.reserve() > 0);
+    }
+
+    @Test
+    public void requestsBeyondBurstAreSpacedAtConfiguredRate() {
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(10, 1, clock::get);
+
+        assertEquals(0, rateLimiter.reserve());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), rateLimiter.reserve());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(200), rateLimiter.reserve());
+    }
+
+    @Test
+    public void tokensRefillOverTimeUpToBurst() {
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(10, 2, clock::get);
+        rateLimiter.reserve();
+        rateLimiter.reserve();
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        assertEquals(0, rateLimiter.reserve());
+        assertEquals(0, rateLimiter.reserve());
+        assertTrue(rateLimiter.reserve() > 0);
+    }
+}